@@ -0,0 +1,215 @@
+// 均值（盒式）滤波：(2r+1)x(2r+1) 窗口的平均，图像边界外按最近的边界像素延拓。
+// 先逐行、再逐列做滑动窗口求和（加入新进入窗口的像素、减去离开的像素），每像素的计算量与半径无关。
+// 也可以依次做多遍不同半径的盒式滤波（GaussianImageFilter 用它近似高斯）。
+//
+// 求和在 long 定点整数上进行：像素只在开始时乘 2^16 取整一次，各遍只做整数加减、不做除法，
+// 最后一次除以所有窗口宽度之积。整数求和没有舍入误差，结果只取决于窗口内容，
+// 因此分块（带光环）结果与整图结果逐像素相同。像素绝对值需小于 2^16；累计增益超过 2^30 时
+// 在那一遍之前先整数四舍五入地除掉已有增益，何时除只由各遍半径决定，与分块无关。
+// 列方向按整行向量累加，块内的工作集可以放进缓存；块大小由 ParallelImageProcessor 控制。
+public class BoxImageFilter implements ImageFilter {
+    private static final double SCALE = 65536.0;    // 定点数的 16 位小数
+    private static final long MAX_GAIN = 1L << 30;  // 2^16 定点像素乘以增益不超过 2^62
+    // 每个线程复用的缓冲区（行缓冲两个、块缓冲两个、列求和一个），避免每块、每遍重新分配并清零
+    private static final ThreadLocal<long[][]> SCRATCH = ThreadLocal.withInitial(() -> new long[5][0]);
+
+    private final int[] radii;
+    private final int radius;
+    private final long[] divisors; // 第 p 遍（先各行遍、再各列遍）之前要除掉的增益，1 表示不除；最后一项在输出时除
+    private final double outputScale;
+
+    public BoxImageFilter(int radius) {
+        this(new int[]{radius});
+    }
+
+    // 依次做多遍盒式滤波，每遍一个半径
+    BoxImageFilter(int[] radii) {
+        if (radii.length == 0) {
+            throw new IllegalArgumentException("Need at least one box pass");
+        }
+        int total = 0;
+        for (int r : radii) {
+            if (r < 0) {
+                throw new IllegalArgumentException("Box radius must be non-negative: " + r);
+            }
+            total += r;
+        }
+        this.radii = radii.clone();
+        this.radius = total;
+        this.divisors = new long[2 * radii.length + 1];
+        long gain = 1;
+        for (int p = 0; p < 2 * radii.length; p++) {
+            long width = 2L * radii[p % radii.length] + 1;
+            divisors[p] = 1;
+            if (gain > MAX_GAIN / width) {
+                divisors[p] = gain;
+                gain = 1;
+            }
+            gain *= width;
+        }
+        divisors[2 * radii.length] = gain;
+        this.outputScale = 1.0 / (gain * SCALE);
+    }
+
+    @Override
+    public double[][] filter(double[][] imageBlock) {
+        GrayImage src = GrayImage.fromRows(imageBlock);
+        GrayImage dst = src.createCompatible();
+        filter(src, dst);
+        return dst.toRows();
+    }
+
+    // 各遍半径之和
+    @Override
+    public int getRadius() {
+        return radius;
+    }
+
+    public int[] getRadii() {
+        return radii.clone();
+    }
+
+    @Override
+    public void filter(GrayImage src, GrayImage dst, int x, int y) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        int w = dst.getWidth();
+        int h = dst.getHeight();
+        if (w == 0 || h == 0) {
+            return;
+        }
+        // 列方向各遍需要的所有行和行方向各遍需要的所有列（在图像边界处截断）
+        int top = Math.max(0, y - radius);
+        int bottom = Math.min(height, y + h + radius);
+        int left = Math.max(0, x - radius);
+        int right = Math.min(width, x + w + radius);
+        int span = right - left;
+        float[] in = src.getData();
+        long[] line = scratch(0, span);
+        long[] next = scratch(1, span);
+        long[] rows = scratch(2, (bottom - top) * w);
+        long[] work = scratch(3, (bottom - top) * w);
+        long[] sum = scratch(4, w);
+
+        // 行方向：每行转换为定点数后依次做各遍滑动求和，只保留本块的 w 列
+        for (int yy = top; yy < bottom; yy++) {
+            int base = src.rowOffset(yy) + left;
+            for (int c = 0; c < span; c++) {
+                line[c] = (long) Math.rint(in[base + c] * SCALE);
+            }
+            long[] cur = line;
+            long[] out = next;
+            int reach = radius;
+            for (int p = 0; p < radii.length; p++) {
+                int r = radii[p];
+                divide(cur, Math.max(0, x - reach) - left, Math.min(width, x + w + reach) - left, divisors[p]);
+                reach -= r;
+                slideRow(cur, out, left, Math.max(0, x - reach), Math.min(width, x + w + reach), r, width);
+                long[] t = cur;
+                cur = out;
+                out = t;
+            }
+            System.arraycopy(cur, x - left, rows, (yy - top) * w, w);
+        }
+
+        // 列方向：以整行为单位滑动求和
+        long[] cur = rows;
+        long[] out = work;
+        int reach = radius;
+        for (int p = 0; p < radii.length; p++) {
+            int r = radii[p];
+            divide(cur, (Math.max(0, y - reach) - top) * w, (Math.min(height, y + h + reach) - top) * w, divisors[radii.length + p]);
+            reach -= r;
+            slideColumns(cur, out, sum, top, Math.max(0, y - reach), Math.min(height, y + h + reach), r, height, w);
+            long[] t = cur;
+            cur = out;
+            out = t;
+        }
+
+        float[] target = dst.getData();
+        for (int j = 0; j < h; j++) {
+            int o = dst.rowOffset(j);
+            int from = (y + j - top) * w;
+            for (int i = 0; i < w; i++) {
+                target[o + i] = (float) (cur[from + i] * outputScale);
+            }
+        }
+    }
+
+    // 整数四舍五入地除掉已累计的增益
+    private static void divide(long[] values, int from, int to, long divisor) {
+        if (divisor == 1) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            values[i] = Math.floorDiv(values[i] + divisor / 2, divisor);
+        }
+    }
+
+    // 行内一遍：对图像列 [lo, hi) 求半径 r 的窗口和；in/out 的下标 0 对应图像列 base，列号在 [0, size) 内截断
+    private static void slideRow(long[] in, long[] out, int base, int lo, int hi, int r, int size) {
+        if (r == 0) {
+            System.arraycopy(in, lo - base, out, lo - base, hi - lo);
+            return;
+        }
+        int last = size - 1;
+        long sum = 0;
+        for (int k = lo - r; k <= lo + r; k++) {
+            sum += in[Math.min(last, Math.max(0, k)) - base];
+        }
+        out[lo - base] = sum;
+        // 窗口完全在图像内的部分不必截断下标
+        int c = lo + 1;
+        int inner = Math.min(hi, r + 1);
+        int end = Math.min(hi, size - r);
+        for (; c < inner; c++) {
+            sum += in[Math.min(last, c + r) - base] - in[Math.max(0, c - r - 1) - base];
+            out[c - base] = sum;
+        }
+        for (; c < end; c++) {
+            sum += in[c + r - base] - in[c - r - 1 - base];
+            out[c - base] = sum;
+        }
+        for (; c < hi; c++) {
+            sum += in[Math.min(last, c + r) - base] - in[Math.max(0, c - r - 1) - base];
+            out[c - base] = sum;
+        }
+    }
+
+    // 列方向一遍：对图像行 [lo, hi) 求半径 r 的窗口和；每行 w 个值，下标 0 行对应图像行 base，行号在 [0, size) 内截断
+    private static void slideColumns(long[] in, long[] out, long[] sum, int base, int lo, int hi, int r, int size, int w) {
+        if (r == 0) {
+            System.arraycopy(in, (lo - base) * w, out, (lo - base) * w, (hi - lo) * w);
+            return;
+        }
+        int last = size - 1;
+        int first = (Math.max(0, lo - r) - base) * w;
+        System.arraycopy(in, first, sum, 0, w);
+        for (int k = lo - r + 1; k <= lo + r; k++) {
+            int row = (Math.min(last, Math.max(0, k)) - base) * w;
+            for (int i = 0; i < w; i++) {
+                sum[i] += in[row + i];
+            }
+        }
+        int o = (lo - base) * w;
+        System.arraycopy(sum, 0, out, o, w);
+        for (int yy = lo + 1; yy < hi; yy++) {
+            int add = (Math.min(last, yy + r) - base) * w;
+            int remove = (Math.max(0, yy - r - 1) - base) * w;
+            o = (yy - base) * w;
+            for (int i = 0; i < w; i++) {
+                long s = sum[i] + in[add + i] - in[remove + i];
+                sum[i] = s;
+                out[o + i] = s;
+            }
+        }
+    }
+
+    private static long[] scratch(int index, int size) {
+        long[][] buffers = SCRATCH.get();
+        if (buffers[index].length < size) {
+            buffers[index] = new long[size];
+        }
+        return buffers[index];
+    }
+}
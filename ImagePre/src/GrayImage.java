@@ -0,0 +1,117 @@
+// 连续存储的单通道灰度图：一个 float[] 按行排列，stride 为行跨度。
+// view() 返回共享同一数组的子区域（零拷贝分块），滤波器直接在视图上读写，不再为每块分配新数组。
+public class GrayImage {
+    private final float[] data;
+    private final int offset; // (0, 0) 像素在 data 中的下标
+    private final int stride; // 相邻两行的下标差
+    private final int width;
+    private final int height;
+
+    public GrayImage(int width, int height) {
+        this(new float[Math.multiplyExact(width, height)], 0, width, width, height);
+    }
+
+    public GrayImage(float[] data, int offset, int stride, int width, int height) {
+        if (width < 0 || height < 0 || stride < width) {
+            throw new IllegalArgumentException("Bad image layout: " + width + "x" + height + ", stride " + stride);
+        }
+        if (height > 0 && width > 0 && (offset < 0 || offset + (long) (height - 1) * stride + width > data.length)) {
+            throw new IllegalArgumentException("Image region exceeds its buffer");
+        }
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+        this.width = width;
+        this.height = height;
+    }
+
+    // 从二维数组复制（兼容旧接口）
+    public static GrayImage fromRows(double[][] rows) {
+        int height = rows.length;
+        int width = height == 0 ? 0 : rows[0].length;
+        GrayImage image = new GrayImage(width, height);
+        for (int y = 0; y < height; y++) {
+            double[] row = rows[y];
+            int base = y * width;
+            for (int x = 0; x < width; x++) {
+                image.data[base + x] = (float) row[x];
+            }
+        }
+        return image;
+    }
+
+    public double[][] toRows() {
+        double[][] rows = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            int base = rowOffset(y);
+            double[] row = rows[y];
+            for (int x = 0; x < width; x++) {
+                row[x] = data[base + x];
+            }
+        }
+        return rows;
+    }
+
+    // 子区域视图：与本图共享像素，写入视图即写入原图
+    public GrayImage view(int x, int y, int w, int h) {
+        if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > width || y + h > height) {
+            throw new IllegalArgumentException("View " + w + "x" + h + " at (" + x + ", " + y + ") outside " + width + "x" + height);
+        }
+        return new GrayImage(data, offset + y * stride + x, stride, w, h);
+    }
+
+    // 同尺寸的新图（紧凑存储）
+    public GrayImage createCompatible() {
+        return new GrayImage(width, height);
+    }
+
+    // 紧凑的深拷贝
+    public GrayImage copy() {
+        GrayImage copy = new GrayImage(width, height);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // 逐行复制同尺寸图像的像素
+    public void copyFrom(GrayImage source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("Size mismatch: " + source.width + "x" + source.height + " vs " + width + "x" + height);
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(source.data, source.rowOffset(y), data, rowOffset(y), width);
+        }
+    }
+
+    public float get(int x, int y) {
+        return data[offset + y * stride + x];
+    }
+
+    public void set(int x, int y, float value) {
+        data[offset + y * stride + x] = value;
+    }
+
+    // 第 y 行首像素在 getData() 中的下标
+    public int rowOffset(int y) {
+        return offset + y * stride;
+    }
+
+    public float[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,164 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// 图像读写：直接访问 BufferedImage 底层的 DataBufferByte / DataBufferInt 数组，
+// 不再逐像素调用 getRGB/setRGB（同步、每次都做颜色模型转换）。
+// 灰度图读出的是原始采样值，彩色图取红色通道（与原来的 (rgb >> 16) & 0xFF 一致）。
+// 大图按行分段在 DspRuntime 线程池上并行转换。
+public final class GrayImageIO {
+    private static final int PARALLEL_PIXELS = 1 << 18; // 小于此像素数的图单线程转换
+
+    private GrayImageIO() {
+    }
+
+    public static GrayImage read(String path) throws IOException, InterruptedException, ExecutionException {
+        return read(new File(path));
+    }
+
+    public static GrayImage read(File file) throws IOException, InterruptedException, ExecutionException {
+        BufferedImage img = ImageIO.read(file);
+        if (img == null) {
+            throw new IOException("Unsupported image format: " + file);
+        }
+        return toGray(img);
+    }
+
+    // 保存为 8 位灰度图，format 如 "png"
+    public static void write(GrayImage image, String format, File file) throws IOException, InterruptedException, ExecutionException {
+        if (!ImageIO.write(toBufferedImage(image), format, file)) {
+            throw new IOException("No writer for format " + format);
+        }
+    }
+
+    public static void write(GrayImage image, String path) throws IOException, InterruptedException, ExecutionException {
+        write(image, "png", new File(path));
+    }
+
+    public static GrayImage toGray(BufferedImage img) throws InterruptedException, ExecutionException {
+        int width = img.getWidth();
+        int height = img.getHeight();
+        GrayImage image = new GrayImage(width, height);
+        float[] out = image.getData();
+        Raster raster = img.getRaster();
+        SampleModel model = raster.getSampleModel();
+        DataBuffer buffer = raster.getDataBuffer();
+        int tx = raster.getSampleModelTranslateX();
+        int ty = raster.getSampleModelTranslateY();
+
+        if (buffer instanceof DataBufferByte && model instanceof ComponentSampleModel && buffer.getNumBanks() == 1
+                && img.getColorModel() instanceof ComponentColorModel) {
+            // 灰度（1 个分量）或交错存储的 RGB/BGR/ABGR：按行跨度和像素跨度直接取第 0 个分量（灰度或红色）
+            ComponentSampleModel components = (ComponentSampleModel) model;
+            byte[] data = ((DataBufferByte) buffer).getData();
+            int base = buffer.getOffset() + components.getBandOffsets()[0];
+            int scanline = components.getScanlineStride();
+            int pixel = components.getPixelStride();
+            forEachBand(width, height, (from, to) -> {
+                for (int y = from; y < to; y++) {
+                    int in = base + (y - ty) * scanline - tx * pixel;
+                    int o = y * width;
+                    for (int x = 0; x < width; x++) {
+                        out[o + x] = data[in + x * pixel] & 0xFF;
+                    }
+                }
+            });
+        } else if (buffer instanceof DataBufferInt && model instanceof SinglePixelPackedSampleModel && buffer.getNumBanks() == 1
+                && img.getColorModel() instanceof DirectColorModel) {
+            // INT_RGB / INT_ARGB 等打包格式：按红色分量的掩码和位移取值
+            SinglePixelPackedSampleModel packed = (SinglePixelPackedSampleModel) model;
+            int[] data = ((DataBufferInt) buffer).getData();
+            int base = buffer.getOffset();
+            int scanline = packed.getScanlineStride();
+            int mask = packed.getBitMasks()[0];
+            int shift = packed.getBitOffsets()[0];
+            int bits = packed.getSampleSize(0);
+            float scale = bits == 8 ? 1.0f : 255.0f / ((1 << bits) - 1);
+            forEachBand(width, height, (from, to) -> {
+                for (int y = from; y < to; y++) {
+                    int in = base + (y - ty) * scanline - tx;
+                    int o = y * width;
+                    for (int x = 0; x < width; x++) {
+                        out[o + x] = ((data[in + x] & mask) >>> shift) * scale;
+                    }
+                }
+            });
+        } else {
+            // 其他格式（调色板、1 位二值、16 位等）：整行批量 getRGB，仍比逐像素快得多
+            forEachBand(width, height, (from, to) -> {
+                int[] row = new int[width];
+                for (int y = from; y < to; y++) {
+                    img.getRGB(0, y, width, 1, row, 0, width);
+                    int o = y * width;
+                    for (int x = 0; x < width; x++) {
+                        out[o + x] = (row[x] >> 16) & 0xFF;
+                    }
+                }
+            });
+        }
+        return image;
+    }
+
+    // 8 位灰度 BufferedImage，像素四舍五入并截断到 0..255 后直接写入其字节数组
+    public static BufferedImage toBufferedImage(GrayImage image) throws InterruptedException, ExecutionException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Raster raster = img.getRaster();
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int scanline = model.getScanlineStride();
+        float[] in = image.getData();
+        forEachBand(width, height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                int row = image.rowOffset(y);
+                int o = y * scanline;
+                for (int x = 0; x < width; x++) {
+                    int gray = Math.round(in[row + x]);
+                    data[o + x] = (byte) Math.max(0, Math.min(255, gray));
+                }
+            }
+        });
+        return img;
+    }
+
+    private interface RowBand {
+        void convert(int from, int to);
+    }
+
+    // 把 [0, height) 行分成若干段并行转换；小图直接在当前线程完成
+    private static void forEachBand(int width, int height, RowBand band) throws InterruptedException, ExecutionException {
+        int bands = (long) width * height < PARALLEL_PIXELS ? 1 : Math.min(height, 4 * DspRuntime.getParallelism());
+        if (bands <= 1) {
+            band.convert(0, height);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k = 0; k < bands; k++) {
+            int from = (int) ((long) k * height / bands);
+            int to = (int) ((long) (k + 1) * height / bands);
+            tasks.add(() -> {
+                band.convert(from, to);
+                return null;
+            });
+        }
+        for (Future<Void> future : DspRuntime.pool().invokeAll(tasks)) {
+            future.get();
+        }
+    }
+}
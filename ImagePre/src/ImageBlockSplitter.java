@@ -36,4 +36,20 @@ public class ImageBlockSplitter {
         }
         return merged;
     }
-}
\ No newline at end of file
+
+    // 零拷贝分块：返回共享原图像素的视图，按行优先顺序排列
+    public static List<GrayImage> splitTiles(GrayImage image, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        List<GrayImage> tiles = new ArrayList<>();
+        for (int i = 0; i < image.getHeight(); i += blockSize) {
+            for (int j = 0; j < image.getWidth(); j += blockSize) {
+                int h = Math.min(blockSize, image.getHeight() - i);
+                int w = Math.min(blockSize, image.getWidth() - j);
+                tiles.add(image.view(j, i, w, h));
+            }
+        }
+        return tiles;
+    }
+}
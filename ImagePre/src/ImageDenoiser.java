@@ -1,37 +1,16 @@
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 public class ImageDenoiser {
-    public static double[][] loadImage(String path) throws IOException {
-        BufferedImage img = ImageIO.read(new File(path));
-        int width = img.getWidth();
-        int height = img.getHeight();
-        double[][] pixels = new double[height][width];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = img.getRGB(x, y);
-                int gray = (rgb >> 16) & 0xFF; // 提取灰度值
-                pixels[y][x] = gray;
-            }
-        }
-        return pixels;
+    // 读取为二维数组（兼容旧接口），底层走 GrayImageIO 的直接栅格访问
+    public static double[][] loadImage(String path) throws IOException, ExecutionException, InterruptedException {
+        return GrayImageIO.read(path).toRows();
     }
 
-    public static void saveImage(double[][] pixels, String outputPath) throws IOException {
-        int height = pixels.length;
-        int width = pixels[0].length;
-        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int gray = (int) Math.round(pixels[y][x]);
-                int rgb = (gray << 16) | (gray << 8) | gray;
-                img.setRGB(x, y, rgb);
-            }
-        }
-        ImageIO.write(img, "png", new File(outputPath));
+    public static void saveImage(double[][] pixels, String outputPath) throws IOException, ExecutionException, InterruptedException {
+        GrayImageIO.write(GrayImage.fromRows(pixels), outputPath);
     }
 
     public static void main(String[] args) throws IOException, ExecutionException, InterruptedException {
@@ -39,20 +18,13 @@ public class ImageDenoiser {
         String inputDir = "F:\\OCR\\grade_3\\processed_images";
         String outputDir = "F:\\OCR\\grade_3\\denoised_images";
 
-        // 初始化滤波器和并行处理器
+        // 初始化滤波器和批处理流水线（解码、滤波、编码重叠进行，滤波使用共享线程池）
         ImageFilter filter = new LowPassImageFilter(0.5);
-        ParallelImageProcessor processor = new ParallelImageProcessor(filter, 8); // 使用 8 线程
+        ImagePipeline pipeline = new ImagePipeline(filter);
 
         // 处理所有图片
-        File dir = new File(inputDir);
-        for (File file : dir.listFiles()) {
-            if (file.isFile() && file.getName().endsWith(".png")) {
-                double[][] image = loadImage(file.getPath());
-                double[][] denoised = processor.process(image);
-                String outputPath = outputDir + File.separator + "denoised_" + file.getName();
-                saveImage(denoised, outputPath);
-                System.out.println("Processed: " + outputPath);
-            }
-        }
+        List<File> files = BatchRunner.findFiles(".png", new File(inputDir));
+        ImagePipeline.Report report = pipeline.run(files, new File(outputDir));
+        System.out.print(report);
     }
-}
\ No newline at end of file
+}
@@ -1,3 +1,21 @@
 public interface ImageFilter {
     double[][] filter(double[][] imageBlock);
-}
\ No newline at end of file
+
+    // 模板半径：每个输出像素只依赖周围 radius 个像素以内的输入。-1 表示未知，此时不能分块处理
+    default int getRadius() {
+        return -1;
+    }
+
+    // 从 src 读、写入同尺寸的 dst（可以是同一大图上的视图），不分配整图数组
+    default void filter(GrayImage src, GrayImage dst) {
+        filter(src, dst, 0, 0);
+    }
+
+    // 带光环（halo）的分块滤波：dst 对应 src 中从 (x, y) 开始、与 dst 同尺寸的区域。
+    // 区域四周多出的像素是相邻块的只读光环，src 的边界按图像边界处理。
+    // 默认实现经由二维数组转换整块 src，供只实现了旧接口的滤波器使用
+    default void filter(GrayImage src, GrayImage dst, int x, int y) {
+        GrayImage whole = GrayImage.fromRows(filter(src.toRows()));
+        dst.copyFrom(whole.view(x, y, dst.getWidth(), dst.getHeight()));
+    }
+}
@@ -0,0 +1,356 @@
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 目录级批处理流水线：解码 -> 滤波 -> 编码三个阶段各有自己的线程，阶段之间用有界队列连接，
+// 一页在编码时下一页已经在滤波、再下一页在解码，PNG 编解码不再让滤波线程池空闲。
+// 解码前先只读图像头得到尺寸，按页占用的字节数从内存预算中申请，编码写完后才归还，
+// 所以同时在流水线中的页面总内存不超过预算（单页超过预算时独占全部预算）。
+// 阶段线程是 DspRuntime.startWorker 的专用线程；滤波本身仍在共享线程池上分块并行。
+public class ImagePipeline {
+    private static final int BYTES_PER_PIXEL = 8; // 输入和输出两幅 float 图
+
+    private final ParallelImageProcessor processor;
+    private int decodeThreads;
+    private int filterThreads;
+    private int encodeThreads;
+    private long memoryBudget;
+    private int queueCapacity = 4;
+    private String outputPrefix = "denoised_";
+
+    public ImagePipeline(ImageFilter filter) {
+        this(new ParallelImageProcessor(filter));
+    }
+
+    // 默认：编解码各用一半的池线程数，两页同时滤波，预算为最大堆的四分之一
+    public ImagePipeline(ParallelImageProcessor processor) {
+        this.processor = processor;
+        int half = Math.max(1, DspRuntime.getParallelism() / 2);
+        this.decodeThreads = half;
+        this.filterThreads = 2;
+        this.encodeThreads = half;
+        this.memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    public void setDecodeThreads(int threads) {
+        this.decodeThreads = checkThreads(threads);
+    }
+
+    public void setFilterThreads(int threads) {
+        this.filterThreads = checkThreads(threads);
+    }
+
+    public void setEncodeThreads(int threads) {
+        this.encodeThreads = checkThreads(threads);
+    }
+
+    // 同时在流水线中的页面（解码后到编码完成）占用的字节上限
+    public void setMemoryBudget(long bytes) {
+        if (bytes < 1024) {
+            throw new IllegalArgumentException("Memory budget must be at least 1 KB, got " + bytes);
+        }
+        this.memoryBudget = bytes;
+    }
+
+    // 阶段之间每个队列最多排队的页数
+    public void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1, got " + capacity);
+        }
+        this.queueCapacity = capacity;
+    }
+
+    // 输出文件名 = 前缀 + 输入文件名
+    public void setOutputPrefix(String outputPrefix) {
+        this.outputPrefix = outputPrefix;
+    }
+
+    private static int checkThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Stage needs at least one thread, got " + threads);
+        }
+        return threads;
+    }
+
+    // 处理所有输入文件并写到 outputDir；单页失败会输出到 stderr 并记入 Report.getFailures()，不影响其他页
+    public Report run(List<File> inputs, File outputDir) throws InterruptedException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            System.err.println("Cannot create output directory " + outputDir);
+        }
+        // 预算以 KB 为单位计入信号量
+        int budget = (int) Math.min(Integer.MAX_VALUE, memoryBudget / 1024);
+        Semaphore memory = new Semaphore(budget);
+        BlockingQueue<Page> decoded = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Page> filtered = new ArrayBlockingQueue<>(queueCapacity);
+        Iterator<File> pending = inputs.iterator();
+        List<File> failures = Collections.synchronizedList(new ArrayList<>());
+        Stage decode = new Stage("decode", decodeThreads);
+        Stage filter = new Stage("filter", filterThreads);
+        Stage encode = new Stage("encode", encodeThreads);
+        AtomicInteger decoders = new AtomicInteger(decodeThreads);
+        AtomicInteger filters = new AtomicInteger(filterThreads);
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+
+        // 每页的失败（包括 Error）只记入该页并归还其内存；线程无论怎样结束都在 finally 中计数，
+        // 最后一个结束的线程给下一阶段发结束标记，下游不会永远等在 take() 上
+        for (int i = 0; i < decodeThreads; i++) {
+            workers.add(DspRuntime.startWorker("image-decode", () -> {
+                try {
+                    while (true) {
+                        File file;
+                        synchronized (pending) {
+                            file = pending.hasNext() ? pending.next() : null;
+                        }
+                        if (file == null) {
+                            break;
+                        }
+                        int permits = 0;
+                        try {
+                            int needed = (int) Math.min(budget, (pageBytes(file) + 1023) / 1024);
+                            memory.acquire(needed);
+                            permits = needed;
+                            long t = System.nanoTime();
+                            GrayImage image = GrayImageIO.read(file);
+                            decode.record(t, image);
+                            decoded.put(new Page(file, image, permits));
+                        } catch (InterruptedException e) {
+                            memory.release(permits);
+                            throw e;
+                        } catch (Throwable e) {
+                            memory.release(permits);
+                            fail(failures, file, "decode", e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (decoders.decrementAndGet() == 0) {
+                        end(decoded, filterThreads);
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < filterThreads; i++) {
+            workers.add(DspRuntime.startWorker("image-filter", () -> {
+                try {
+                    Page page;
+                    while ((page = decoded.take()) != Page.END) {
+                        try {
+                            long t = System.nanoTime();
+                            GrayImage result = page.image.createCompatible();
+                            processor.process(page.image, result);
+                            filter.record(t, result);
+                            filtered.put(new Page(page.file, result, page.permits));
+                        } catch (InterruptedException e) {
+                            memory.release(page.permits);
+                            throw e;
+                        } catch (Throwable e) {
+                            memory.release(page.permits);
+                            fail(failures, page.file, "filter", e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (filters.decrementAndGet() == 0) {
+                        end(filtered, encodeThreads);
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < encodeThreads; i++) {
+            workers.add(DspRuntime.startWorker("image-encode", () -> {
+                try {
+                    Page page;
+                    while ((page = filtered.take()) != Page.END) {
+                        try {
+                            long t = System.nanoTime();
+                            GrayImageIO.write(page.image, new File(outputDir, outputPrefix + page.file.getName()).getPath());
+                            encode.record(t, page.image);
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Throwable e) {
+                            fail(failures, page.file, "encode", e);
+                        } finally {
+                            memory.release(page.permits);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            throw e;
+        }
+        return new Report(System.nanoTime() - start, List.of(decode, filter, encode), failures);
+    }
+
+    // 给下一阶段的每个线程发一个结束标记；被中断说明 run() 正在中断所有线程，不再等待
+    private static void end(BlockingQueue<Page> queue, int consumers) {
+        try {
+            for (int k = 0; k < consumers; k++) {
+                queue.put(Page.END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void fail(List<File> failures, File file, String stage, Throwable e) {
+        failures.add(file);
+        System.err.println("Failed to " + stage + " " + file + ": " + (e instanceof ExecutionException ? e.getCause() : e));
+    }
+
+    // 只读图像头得到的页面内存占用；读不到尺寸的格式交给解码阶段报错
+    private static long pageBytes(File file) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            if (stream == null) {
+                throw new IOException("Cannot open " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0) * BYTES_PER_PIXEL;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static class Page {
+        static final Page END = new Page(null, null, 0);
+
+        final File file;
+        final GrayImage image;
+        final int permits;
+
+        Page(File file, GrayImage image, int permits) {
+            this.file = file;
+            this.image = image;
+            this.permits = permits;
+        }
+    }
+
+    // 一个阶段的计数：处理的页数、像素数和各线程忙碌时间之和
+    public static class Stage {
+        private final String name;
+        private final int threads;
+        private final AtomicInteger pages = new AtomicInteger();
+        private final AtomicLong pixels = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        Stage(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        void record(long startNanos, GrayImage image) {
+            busyNanos.addAndGet(System.nanoTime() - startNanos);
+            pixels.addAndGet((long) image.getWidth() * image.getHeight());
+            pages.incrementAndGet();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getPages() {
+            return pages.get();
+        }
+
+        public long getPixels() {
+            return pixels.get();
+        }
+
+        public long getBusyNanos() {
+            return busyNanos.get();
+        }
+
+        // 该阶段单独以全部线程运行时的吞吐量（页/秒）
+        public double getPagesPerSecond() {
+            return busyNanos.get() == 0 ? 0.0 : pages.get() * threads * 1e9 / busyNanos.get();
+        }
+
+        public double getMegapixelsPerSecond() {
+            return busyNanos.get() == 0 ? 0.0 : pixels.get() * threads * 1e3 / busyNanos.get();
+        }
+    }
+
+    public static class Report {
+        private final long wallNanos;
+        private final List<Stage> stages;
+        private final List<File> failures;
+
+        Report(long wallNanos, List<Stage> stages, List<File> failures) {
+            this.wallNanos = wallNanos;
+            this.stages = stages;
+            this.failures = new ArrayList<>(failures);
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public List<Stage> getStages() {
+            return stages;
+        }
+
+        public List<File> getFailures() {
+            return failures;
+        }
+
+        // 完整走完三个阶段的页数
+        public int getPages() {
+            return stages.get(stages.size() - 1).getPages();
+        }
+
+        public double getPagesPerSecond() {
+            return wallNanos == 0 ? 0.0 : getPages() * 1e9 / wallNanos;
+        }
+
+        // 每个阶段一行：线程数、页数、吞吐量和线程利用率（忙碌时间 / 线程数 x 总时间），利用率最高的是瓶颈
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d pages in %.2f s (%.2f pages/s), %d failed%n",
+                    getPages(), wallNanos / 1e9, getPagesPerSecond(), failures.size()));
+            for (Stage stage : stages) {
+                double utilisation = wallNanos == 0 ? 0.0 : (double) stage.getBusyNanos() / ((double) stage.getThreads() * wallNanos);
+                sb.append(String.format("  %-6s %2d threads %6d pages %8.2f pages/s %8.1f Mpx/s  busy %3.0f%%%n",
+                        stage.getName(), stage.getThreads(), stage.getPages(), stage.getPagesPerSecond(),
+                        stage.getMegapixelsPerSecond(), 100 * utilisation));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -7,21 +7,53 @@ public class LowPassImageFilter implements ImageFilter {
 
     @Override
     public double[][] filter(double[][] imageBlock) {
-        int rows = imageBlock.length;
-        int cols = imageBlock[0].length;
-        double[][] filtered = new double[rows][cols];
-        // 简单的低通滤波逻辑（示例）
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (i > 0 && j > 0 && i < rows - 1 && j < cols - 1) {
-                    filtered[i][j] = (imageBlock[i-1][j] + imageBlock[i][j-1] +
-                            imageBlock[i][j] + imageBlock[i][j+1] +
-                            imageBlock[i+1][j]) / 5.0;
-                } else {
-                    filtered[i][j] = imageBlock[i][j];
-                }
+        GrayImage src = GrayImage.fromRows(imageBlock);
+        GrayImage dst = src.createCompatible();
+        filter(src, dst);
+        return dst.toRows();
+    }
+
+    @Override
+    public int getRadius() {
+        return 1;
+    }
+
+    // 简单的低通滤波逻辑（示例）：边界像素保持不变，内部像素取上下左右和自身的平均
+    // 直接按行偏移访问连续数组，内层循环是连续访问，JIT 可以向量化
+    @Override
+    public void filter(GrayImage src, GrayImage dst, int x, int y) {
+        int rows = src.getHeight();
+        int cols = src.getWidth();
+        int w = dst.getWidth();
+        int h = dst.getHeight();
+        if (w == 0 || h == 0) {
+            return;
+        }
+        float[] in = src.getData();
+        float[] out = dst.getData();
+        int stride = src.getStride();
+        // 本块内需要计算平均值的列范围 [from, to)，其余列位于图像左右边界
+        int from = Math.max(x, 1);
+        int to = Math.min(x + w, cols - 1);
+        for (int j = 0; j < h; j++) {
+            int sy = y + j;
+            int row = src.rowOffset(sy);
+            int o = dst.rowOffset(j) - x; // 与 src 一样按列号 i 寻址
+            if (sy == 0 || sy == rows - 1) {
+                System.arraycopy(in, row + x, out, o + x, w);
+                continue;
+            }
+            int up = row - stride;
+            int down = row + stride;
+            if (x == 0) {
+                out[o] = in[row];
+            }
+            for (int i = from; i < to; i++) {
+                out[o + i] = (in[up + i] + in[row + i - 1] + in[row + i] + in[row + i + 1] + in[down + i]) / 5.0f;
+            }
+            if (x + w == cols && cols > 1) {
+                out[o + cols - 1] = in[row + cols - 1];
             }
         }
-        return filtered;
     }
-}
\ No newline at end of file
+}
@@ -2,36 +2,88 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
 
+// 分块并行滤波：每块连同四周 radius 宽的只读光环一起交给滤波器，块边上的像素也能读到相邻块的输入，
+// 所以分块结果与整图 filter.filter(image) 逐像素相同
 public class ParallelImageProcessor {
+    public static final int DEFAULT_TILE_SIZE = 128; // 128x128 的 float 块，源块和目标块合计 128 KB，可放进 L2
+
     private final ImageFilter filter;
-    private final int numThreads;
+    private int tileSize;
+
+    // 线程数由共享的 DspRuntime 线程池决定（-Ddsp.threads=N）
+    public ParallelImageProcessor(ImageFilter filter) {
+        this(filter, DEFAULT_TILE_SIZE);
+    }
 
-    public ParallelImageProcessor(ImageFilter filter, int numThreads) {
+    public ParallelImageProcessor(ImageFilter filter, int tileSize) {
         this.filter = filter;
-        this.numThreads = numThreads;
+        this.tileSize = checkTileSize(tileSize);
     }
 
-    public double[][] process(double[][] image) throws InterruptedException, ExecutionException {
-        // 分块
-        List<double[][]> blocks = ImageBlockSplitter.splitImage(image, 100); // 块大小为 100x100
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        List<Future<double[][]>> futures = new ArrayList<>();
+    // 块边长（像素），按目标机器的 L2 缓存大小调整
+    public void setTileSize(int tileSize) {
+        this.tileSize = checkTileSize(tileSize);
+    }
 
-        // 提交任务
-        for (double[][] block : blocks) {
-            Callable<double[][]> task = () -> filter.filter(block);
-            futures.add(executor.submit(task));
+    private static int checkTileSize(int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
         }
+        return tileSize;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
 
-        // 收集结果
-        List<double[][]> processedBlocks = new ArrayList<>();
-        for (Future<double[][]> future : futures) {
-            processedBlocks.add(future.get());
+    public double[][] process(double[][] image) throws InterruptedException, ExecutionException {
+        return process(GrayImage.fromRows(image)).toRows();
+    }
+
+    public GrayImage process(GrayImage image) throws InterruptedException, ExecutionException {
+        GrayImage result = image.createCompatible();
+        process(image, result);
+        return result;
+    }
+
+    // 结果直接写入预先分配的 dst（不能与 src 重叠）：每块读源图上带光环的视图、写目标图上对应的视图
+    public void process(GrayImage src, GrayImage dst) throws InterruptedException, ExecutionException {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        if (width != dst.getWidth() || height != dst.getHeight()) {
+            throw new IllegalArgumentException("Destination must be " + width + "x" + height);
+        }
+        int radius = filter.getRadius();
+        if (radius < 0) {
+            // 半径未知的滤波器无法分块，整图处理
+            System.err.println("Filter " + filter.getClass().getSimpleName() + " has no stencil radius; filtering untiled");
+            filter.filter(src, dst);
+            return;
         }
 
-        executor.shutdown();
+        ExecutorService executor = DspRuntime.pool();
+        List<Future<?>> futures = new ArrayList<>();
+        // 提交任务
+        for (int y = 0; y < height; y += tileSize) {
+            for (int x = 0; x < width; x += tileSize) {
+                int w = Math.min(tileSize, width - x);
+                int h = Math.min(tileSize, height - y);
+                // 光环在图像边界处截断，滤波器据此识别真正的图像边界
+                int x0 = Math.max(0, x - radius);
+                int y0 = Math.max(0, y - radius);
+                int x1 = Math.min(width, x + w + radius);
+                int y1 = Math.min(height, y + h + radius);
+                GrayImage halo = src.view(x0, y0, x1 - x0, y1 - y0);
+                GrayImage target = dst.view(x, y, w, h);
+                int dx = x - x0;
+                int dy = y - y0;
+                futures.add(executor.submit(() -> filter.filter(halo, target, dx, dy)));
+            }
+        }
 
-        // 合并块
-        return ImageBlockSplitter.mergeBlocks(processedBlocks, image.length, image[0].length);
+        // 等待完成
+        for (Future<?> future : futures) {
+            future.get();
+        }
     }
-}
\ No newline at end of file
+}
@@ -94,27 +94,28 @@ public class LogProcessor {
     }
 
 
-    // Threaded processing using ExecutorService
+    // Threaded processing on the shared DspRuntime pool: one task per contiguous slice of entries
+    // (not per entry), with results concatenated in the original order
     private static List<String> processWithCascadeThreaded(List<LogEntry> logEntries) throws InterruptedException, ExecutionException {
-        ExecutorService executor = Executors.newFixedThreadPool(4);
-        List<Callable<String>> tasks = new ArrayList<>();
-
-        for (LogEntry entry : logEntries) {
-            tasks.add(() -> filterLog(entry));  // Creating tasks to process log entries
+        ExecutorService executor = DspRuntime.pool();
+        int slices = Math.max(1, Math.min(logEntries.size(), 4 * DspRuntime.getParallelism()));
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+
+        for (int k = 0; k < slices; k++) {
+            int from = (int) ((long) k * logEntries.size() / slices);
+            int to = (int) ((long) (k + 1) * logEntries.size() / slices);
+            List<LogEntry> slice = logEntries.subList(from, to);
+            tasks.add(() -> processWithCascadeNonThreaded(slice));
         }
 
         // Execute all tasks and collect the results
-        List<Future<String>> results = executor.invokeAll(tasks);
+        List<Future<List<String>>> results = executor.invokeAll(tasks);
         List<String> processedLogs = new ArrayList<>();
 
-        for (Future<String> result : results) {
-            String processed = result.get();
-            if (processed != null) {
-                processedLogs.add(processed);
-            }
+        for (Future<List<String>> result : results) {
+            processedLogs.addAll(result.get());
         }
 
-        executor.shutdown();
         return processedLogs;
     }
 
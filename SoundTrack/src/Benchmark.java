@@ -1,11 +1,12 @@
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
 import java.util.concurrent.*;
 import java.io.*;
 import javax.sound.sampled.*;
 
 public class Benchmark {
+    private static final SignalCache CACHE = SignalCache.getDefault(); // decoded audio, reused across runs
+
     public static void main(String[] args) throws ExecutionException, IOException, InterruptedException, UnsupportedAudioFileException {
         String soundDirectory = "E:\\Java_2025\\sound track\\Audio Wise V1.0"; // Directory containing .wav files
 
@@ -22,8 +23,10 @@ public class Benchmark {
         for (File wavFile : wavFiles) {
             System.out.println("Processing file: " + wavFile.getName());
 
-            // Read the sound signal from the .wav file
-            double[] soundSignal = readWavFile(wavFile.getAbsolutePath());
+            // Read the sound signal from the .wav file (or the signal cache)
+            SignalCache.Entry audio = CACHE.load("wav", () -> decodeWav(wavFile), wavFile);
+            double[] soundSignal = audio.getChannel(0);
+            double sampleRate = audio.getSampleRate();
 
             // Process the sound signal (e.g., denoising)
             double lowCutoff = 100.0; // Low cutoff frequency for filtering (e.g., 100 Hz)
@@ -32,8 +35,8 @@ public class Benchmark {
             Cascade cascade = new Cascade(); // Initialize cascade
 
             // Set advanced filters (optional)
-            filter.setButterworthFilter(4, lowCutoff); // Example: 4th order Butterworth filter
-            // filter.setChebyshevFilter(4, lowCutoff, 0.5); // Example: 4th order Chebyshev filter with 0.5 dB ripple
+            filter.setButterworthFilter(4, lowCutoff, sampleRate); // Example: 4th order Butterworth filter
+            // filter.setChebyshevFilter(4, lowCutoff, 0.5, sampleRate); // Example: 4th order Chebyshev filter with 0.5 dB ripple
 
             // Benchmarking non-threaded cascade
             long startTime = System.nanoTime();
@@ -48,15 +51,41 @@ public class Benchmark {
             double[] filteredSignalCascadeThreaded = cascade.applyCascadeWithThreads(soundSignal, lowCutoff, highCutoff, filter);
             endTime = System.nanoTime();
             System.out.println("Threaded Cascade Execution Time: " + (endTime - startTime) + " ns");
+            System.out.println("Threaded Cascade Plan: " + cascade.getLastPlan());
             System.out.println("SNR for Threaded Cascade: " + calculateSNR(soundSignal, filteredSignalCascadeThreaded));
             System.out.println("MSE for Threaded Cascade: " + calculateMSE(soundSignal, filteredSignalCascadeThreaded));
 
+            // Benchmarking decimated cascade: nothing above highCutoff is kept, so the rate is first cut to
+            // at least 2.5 x highCutoff and the band-pass runs on 1/factor of the samples
+            int factor = (int) Math.max(1, Math.floor(sampleRate / (2.5 * highCutoff)));
+            if (factor > 1) {
+                Filter decimatedFilter = new Filter();
+                decimatedFilter.setButterworthFilter(4, lowCutoff, sampleRate / factor);
+                startTime = System.nanoTime();
+                double[] decimatedSignal = new PolyphaseResampler(1, factor).apply(soundSignal);
+                double[] filteredSignalDecimated = cascade.applyCascade(decimatedSignal, lowCutoff, highCutoff, decimatedFilter);
+                endTime = System.nanoTime();
+                System.out.println("Decimated Cascade (1/" + factor + ", " + sampleRate / factor + " Hz) Execution Time: " + (endTime - startTime) + " ns");
+                System.out.println("SNR for Decimated Cascade: " + calculateSNR(decimatedSignal, filteredSignalDecimated));
+                System.out.println("MSE for Decimated Cascade: " + calculateMSE(decimatedSignal, filteredSignalDecimated));
+            }
+
             // Save filtered signals to files
             String outputFileName = wavFile.getName().replace(".wav", "_filtered.txt");
             saveSignalToFile(filteredSignalCascade, soundDirectory + "\\" + outputFileName.replace(".wav", "_cascade.txt"));
             saveSignalToFile(filteredSignalCascadeThreaded, soundDirectory + "\\" + outputFileName.replace(".wav", "_cascade_threaded.txt"));
         }
     }
+    // Samples (interleaved, as stored) and sample rate of a .wav file; 16-bit PCM values are whole multiples of 1/32768
+    private static SignalCache.Entry decodeWav(File wavFile) throws IOException {
+        try {
+            float sampleRate = AudioSystem.getAudioFileFormat(wavFile).getFormat().getSampleRate();
+            return new SignalCache.Entry(new double[][]{readWavFile(wavFile.getAbsolutePath())}, sampleRate, new double[]{32768.0});
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException(e);
+        }
+    }
+
     // Read a .wav file and extract the audio signal
     private static double[] readWavFile(String wavFilePath) throws IOException, UnsupportedAudioFileException {
         File file = new File(wavFilePath);
@@ -92,24 +121,15 @@ public class Benchmark {
 
     // Calculate Signal-to-Noise Ratio (SNR)
     private static double calculateSNR(double[] original, double[] filtered) {
-        double signalPower = 0;
-        double noisePower = 0;
-        for (int i = 0; i < original.length; i++) {
-            signalPower += Math.pow(original[i], 2);
-            double noise = original[i] - filtered[i];
-            noisePower += Math.pow(noise, 2);
-        }
+        SignalMath math = SignalMath.get();
+        double signalPower = math.sumOfSquares(original);
+        double noisePower = math.squaredDistance(original, filtered);
         return 10 * Math.log10(signalPower / noisePower);
     }
 
     // Calculate Mean Squared Error (MSE)
     private static double calculateMSE(double[] original, double[] filtered) {
-        double mse = 0;
-        for (int i = 0; i < original.length; i++) {
-            double error = original[i] - filtered[i];
-            mse += Math.pow(error, 2);
-        }
-        return mse / original.length;
+        return SignalMath.get().squaredDistance(original, filtered) / original.length;
     }
 
     // Save signal to a file
@@ -124,96 +144,9 @@ public class Benchmark {
     }
 }
 
-class Filter {
-    private ButterworthFilter butterworthFilter;
-    private ChebyshevFilter chebyshevFilter;
-
-    // Default low-pass and high-pass filter methods (for use when no advanced filter is set)
-    public double[] applyLowPassFilter(double[] signal, double cutoff) {
-        double[] filteredSignal = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            filteredSignal[i] = signal[i] * cutoff + (i > 0 ? filteredSignal[i - 1] * (1.0 - cutoff) : 0.0);
-        }
-        return filteredSignal;
-    }
-
-    public double[] applyHighPassFilter(double[] signal, double cutoff) {
-        double[] filteredSignal = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            filteredSignal[i] = signal[i] - signal[i - 1] * cutoff;
-        }
-        return filteredSignal;
-    }
-
-    public double[] applyBandPassFilter(double[] signal, double lowCutoff, double highCutoff) {
-        return applyHighPassFilter(applyLowPassFilter(signal, lowCutoff), highCutoff);
-    }
-
-    // Methods for advanced filters: Butterworth and Chebyshev
-    public double[] butterworthFilter(double[] signal, double cutoff, int order) {
-        if (butterworthFilter != null) {
-            return butterworthFilter.applyLowPassFilter(signal);  // Apply Butterworth filter
-        }
-        return applyLowPassFilter(signal, cutoff);  // Fall back to original method
-    }
-
-    public double[] chebyshevFilter(double[] signal, double cutoff, int order) {
-        if (chebyshevFilter != null) {
-            return chebyshevFilter.applyLowPassFilter(signal);  // Apply Chebyshev filter
-        }
-        return applyLowPassFilter(signal, cutoff);  // Fall back to original method
-    }
-
-    // Constructor to initialize with no filters by default
-    public Filter() {
-        this.butterworthFilter = null;  // No filter by default
-        this.chebyshevFilter = null;    // No filter by default
-    }
-
-    // Methods to set filters (can be invoked by the user)
-    public void setButterworthFilter(int order, double cutoffFrequency) {
-        this.butterworthFilter = new ButterworthFilter(order, cutoffFrequency);
-    }
-
-    public void setChebyshevFilter(int order, double cutoffFrequency, double ripple) {
-        this.chebyshevFilter = new ChebyshevFilter(order, cutoffFrequency, ripple);
-    }
-
-    // Wrapper methods for low-pass, high-pass, and band-pass filters
-    public double[] lowPassFilter(double[] signal, double cutoff) {
-        if (butterworthFilter != null) {
-            return butterworthFilter(signal, cutoff, 1);  // Assuming order 1 for now
-        } else if (chebyshevFilter != null) {
-            return chebyshevFilter(signal, cutoff, 1);  // Assuming order 1 for now
-        } else {
-            return applyLowPassFilter(signal, cutoff);
-        }
-    }
-
-    public double[] highPassFilter(double[] signal, double cutoff) {
-        if (butterworthFilter != null) {
-            return butterworthFilter(signal, cutoff, 1);  // Apply Butterworth high-pass
-        } else if (chebyshevFilter != null) {
-            return chebyshevFilter(signal, cutoff, 1);  // Apply Chebyshev high-pass
-        } else {
-            return applyHighPassFilter(signal, cutoff);
-        }
-    }
-
-    public double[] bandPassFilter(double[] signal, double lowCutoff, double highCutoff) {
-        if (butterworthFilter != null) {
-            // Apply Butterworth band-pass filter
-            return butterworthFilter(signal, lowCutoff, 1);  // Assuming order 1
-        } else if (chebyshevFilter != null) {
-            // Apply Chebyshev band-pass filter
-            return chebyshevFilter(signal, lowCutoff, 1);  // Assuming order 1
-        } else {
-            return applyBandPassFilter(signal, lowCutoff, highCutoff);
-        }
-    }
-}
-
 class Cascade {
+    private ExecutionPlan lastPlan;
+
     public double[] applyCascade(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
         // Apply the filter in a cascaded manner
         double[] filteredSignal = filter.bandPassFilter(signal, lowCutoff, highCutoff);
@@ -221,34 +154,16 @@ class Cascade {
         return filteredSignal;
     }
 
+    // Threaded cascade: when the planner picks chunk-parallel, chunks are filtered concurrently and the
+    // filter state is carried across chunk boundaries, so the result matches applyCascade either way
     public double[] applyCascadeWithThreads(double[] signal, double lowCutoff, double highCutoff, Filter filter) throws InterruptedException, ExecutionException {
-        int numThreads = Runtime.getRuntime().availableProcessors();
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        int chunkSize = signal.length / numThreads;
-        Future<double[]>[] futures = new Future[numThreads];
-
-        // Divide the signal into chunks and process each chunk in parallel
-        for (int i = 0; i < numThreads; i++) {
-            int start = i * chunkSize;
-            int end = (i == numThreads - 1) ? signal.length : start + chunkSize;
-            futures[i] = executor.submit(() -> {
-                // Apply the cascade of filtering steps (band-pass filtering as part of cascade)
-                double[] chunkSignal = Arrays.copyOfRange(signal, start, end);
-                chunkSignal = filter.bandPassFilter(chunkSignal, lowCutoff, highCutoff);
-                // Additional cascading steps could be added here if needed
-                return chunkSignal;
-            });
-        }
-
-        // Combine the results
         double[] filteredSignal = new double[signal.length];
-        for (int i = 0; i < numThreads; i++) {
-            double[] chunkResult = futures[i].get();
-            System.arraycopy(chunkResult, 0, filteredSignal, i * chunkSize, chunkResult.length);
-        }
-
-        executor.shutdown();
+        lastPlan = ExecutionPlanner.execute(filter.bandPassStage(lowCutoff, highCutoff), signal, 0, filteredSignal, 0, signal.length);
         return filteredSignal;
     }
 
+    // How the last applyCascadeWithThreads call ran
+    public ExecutionPlan getLastPlan() {
+        return lastPlan;
+    }
 }
\ No newline at end of file
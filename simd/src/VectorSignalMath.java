@@ -0,0 +1,120 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// jdk.incubator.vector backend of SignalMath: full vectors over the main body, scalar tail.
+// Kept in its own source root and only referenced reflectively from SignalMath, so the core builds
+// and runs without the incubator module.
+final class VectorSignalMath extends SignalMath {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED; // twice the lanes
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        FloatVector acc = FloatVector.zero(FLOAT_SPECIES);
+        int i = 0;
+        for (int bound = FLOAT_SPECIES.loopBound(len); i < bound; i += FLOAT_SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(FLOAT_SPECIES, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(FLOAT_SPECIES, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquares(double[] a, int off, int len) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, a, off + i);
+            acc = v.fma(v, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            double v = a[off + i];
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(double[] a, int aOff, double[] b, int bOff, int len) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, a, aOff + i).sub(DoubleVector.fromArray(SPECIES, b, bOff + i));
+            acc = d.fma(d, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            double d = a[aOff + i] - b[bOff + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public void addScaled(double[] x, int xOff, double gain, double[] acc, int accOff, int len) {
+        DoubleVector g = DoubleVector.broadcast(SPECIES, gain);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOff + i);
+            DoubleVector va = DoubleVector.fromArray(SPECIES, acc, accOff + i);
+            vx.fma(g, va).intoArray(acc, accOff + i);
+        }
+        for (; i < len; i++) {
+            acc[accOff + i] += gain * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void scale(double[] x, int off, double gain, int len) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, off + i).mul(gain).intoArray(x, off + i);
+        }
+        for (; i < len; i++) {
+            x[off + i] *= gain;
+        }
+    }
+
+    @Override
+    public void multiplyComplex(double[] re, double[] im, double[] kRe, double[] kIm, int len) {
+        int k = 0;
+        for (int bound = SPECIES.loopBound(len); k < bound; k += SPECIES.length()) {
+            DoubleVector r = DoubleVector.fromArray(SPECIES, re, k);
+            DoubleVector i = DoubleVector.fromArray(SPECIES, im, k);
+            DoubleVector kr = DoubleVector.fromArray(SPECIES, kRe, k);
+            DoubleVector ki = DoubleVector.fromArray(SPECIES, kIm, k);
+            r.mul(kr).sub(i.mul(ki)).intoArray(re, k);
+            r.mul(ki).add(i.mul(kr)).intoArray(im, k);
+        }
+        for (; k < len; k++) {
+            double r = re[k] * kRe[k] - im[k] * kIm[k];
+            double i = re[k] * kIm[k] + im[k] * kRe[k];
+            re[k] = r;
+            im[k] = i;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Random;
+
+// Checks that the vector and scalar SignalMath backends agree (to rounding) on random data of awkward
+// lengths and offsets, so the tails and unaligned starts are covered. Plain main, no test framework:
+//   java --add-modules jdk.incubator.vector -cp <core>:<simd>:<simd test> SignalMathAgreementTest
+// Exits with status 1 and names the first mismatching kernel if they disagree.
+public class SignalMathAgreementTest {
+    private static final double TOLERANCE = 1e-12;
+    private static final double FLOAT_TOLERANCE = 1e-4; // float sums in a different order
+
+    private static int checks;
+
+    public static void main(String[] args) {
+        SignalMath vector = new VectorSignalMath();
+        SignalMath scalar = SignalMath.scalar();
+        try {
+            compare(vector, scalar);
+        } catch (AssertionError e) {
+            System.err.println("FAILED: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("SignalMathAgreementTest: " + checks + " checks passed");
+    }
+
+    static void compare(SignalMath a, SignalMath b) {
+        Random random = new Random(42);
+        for (int len = 0; len < 300; len += 1 + len / 8) {
+            int off = random.nextInt(5);
+            double[] x = new double[off + len];
+            double[] y = new double[off + len];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = random.nextGaussian();
+                y[i] = random.nextGaussian();
+            }
+            String where = " (len " + len + ", offset " + off + ")";
+
+            float[] fx = FloatSignal.toFloat(x);
+            float[] fy = FloatSignal.toFloat(y);
+            double floatScale = Math.sqrt(len) + 1; // rounding error grows with the length of the sum
+            check(Math.abs(a.dot(fx, off, fy, off, len) - b.dot(fx, off, fy, off, len)) <= FLOAT_TOLERANCE * floatScale,
+                    "float dot" + where);
+            check(close(a.dot(x, off, y, off, len), b.dot(x, off, y, off, len)), "dot" + where);
+            check(close(a.sumOfSquares(x, off, len), b.sumOfSquares(x, off, len)), "sumOfSquares" + where);
+            check(close(a.squaredDistance(x, off, y, 0, len), b.squaredDistance(x, off, y, 0, len)), "squaredDistance" + where);
+
+            double[] accA = y.clone(), accB = y.clone();
+            a.addScaled(x, off, 0.75, accA, 0, len);
+            b.addScaled(x, off, 0.75, accB, 0, len);
+            double[] scaledA = x.clone(), scaledB = x.clone();
+            a.scale(scaledA, off, -1.5, len);
+            b.scale(scaledB, off, -1.5, len);
+            double[] reA = x.clone(), imA = y.clone(), reB = x.clone(), imB = y.clone();
+            a.multiplyComplex(reA, imA, y, x, len);
+            b.multiplyComplex(reB, imB, y, x, len);
+            for (int i = 0; i < x.length; i++) {
+                check(close(accA[i], accB[i]), "addScaled at " + i + where);
+                check(close(scaledA[i], scaledB[i]), "scale at " + i + where);
+                check(close(reA[i], reB[i]) && close(imA[i], imB[i]), "multiplyComplex at " + i + where);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        checks++;
+        if (!condition) {
+            throw new AssertionError("vector and scalar backends disagree: " + what);
+        }
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= TOLERANCE * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+    }
+}
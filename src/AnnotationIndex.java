@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// Annotations of one record as parallel primitive arrays sorted by sample position, with binary-searched
+// range queries. Lets a job touch only the windows around the beats it cares about (e.g. every PVC)
+// instead of the whole record.
+public class AnnotationIndex {
+    // Standard WFDB annotation codes
+    public static final int NORMAL = 1;
+    public static final int LBBB = 2;
+    public static final int RBBB = 3;
+    public static final int ABERR = 4;
+    public static final int PVC = 5;
+    public static final int FUSION = 6;
+    public static final int NPC = 7;
+    public static final int APC = 8;
+    public static final int SVPB = 9;
+    public static final int VESC = 10;
+    public static final int NESC = 11;
+    public static final int PACE = 12;
+    public static final int UNKNOWN = 13;
+    public static final int NOISE = 14;
+    public static final int ARFCT = 16;
+    public static final int RHYTHM = 28;
+
+    // WFDB mnemonics by code (as printed by rdann)
+    private static final String[] MNEMONICS = {
+            " ", "N", "L", "R", "a", "V", "F", "J", "A", "S", "E", "j", "/", "Q", "~", "", "|", "", "s", "T",
+            "*", "D", "\"", "=", "p", "B", "^", "t", "+", "u", "?", "!", "[", "]", "e", "n", "@", "x", "f", "(",
+            ")", "r"
+    };
+
+    private final int[] samples;
+    private final byte[] codes;
+    private final byte[] subtypes;
+    private final byte[] channels;
+
+    public AnnotationIndex(int[] samples, byte[] codes, byte[] subtypes, byte[] channels) {
+        this.samples = samples;
+        this.codes = codes;
+        this.subtypes = subtypes;
+        this.channels = channels;
+    }
+
+    // QRS (beat) annotations, as opposed to rhythm, noise and comment annotations
+    public static boolean isBeat(int code) {
+        return (code >= NORMAL && code <= UNKNOWN) || code == 25 || code == 30 || code == 34 || code == 35
+                || code == 37 || code == 38 || code == 41;
+    }
+
+    public static String mnemonic(int code) {
+        return code >= 0 && code < MNEMONICS.length ? MNEMONICS[code] : String.valueOf(code);
+    }
+
+    public int size() {
+        return samples.length;
+    }
+
+    public int getSample(int index) {
+        return samples[index];
+    }
+
+    public int getCode(int index) {
+        return codes[index];
+    }
+
+    public int getSubtype(int index) {
+        return subtypes[index];
+    }
+
+    public int getChannel(int index) {
+        return channels[index];
+    }
+
+    // First index whose sample is >= sample (size() if none)
+    public int lowerBound(int sample) {
+        int lo = 0;
+        int hi = samples.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (samples[mid] < sample) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Sample positions of annotations with the given code in [from, to)
+    public int[] positions(int code, int from, int to) {
+        int begin = lowerBound(from);
+        int end = lowerBound(to);
+        int[] found = new int[end - begin];
+        int n = 0;
+        for (int i = begin; i < end; i++) {
+            if (codes[i] == code) {
+                found[n++] = samples[i];
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    public int[] positions(int code) {
+        return positions(code, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    // Sample positions of every beat annotation in [from, to)
+    public int[] beats(int from, int to) {
+        int begin = lowerBound(from);
+        int end = lowerBound(to);
+        int[] found = new int[end - begin];
+        int n = 0;
+        for (int i = begin; i < end; i++) {
+            if (isBeat(codes[i])) {
+                found[n++] = samples[i];
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    // Count of each code in [from, to), indexed by code
+    public int[] histogram(int from, int to) {
+        int[] counts = new int[64];
+        for (int i = lowerBound(from), end = lowerBound(to); i < end; i++) {
+            counts[codes[i]]++;
+        }
+        return counts;
+    }
+
+    // Windows [p - before, p + after) around every annotation with the given code, cut from a decoded
+    // signal; beats too close to either end of the signal are left out
+    public double[][] extractWindows(double[] signal, int code, int before, int after) {
+        int[] starts = windowStarts(positions(code), before, after, signal.length);
+        double[][] windows = new double[starts.length][before + after];
+        for (int k = 0; k < starts.length; k++) {
+            System.arraycopy(signal, starts[k], windows[k], 0, before + after);
+        }
+        return windows;
+    }
+
+    // Same windows decoded straight from the record's .dat file, without reading the rest of the record
+    public double[][] readWindows(WfdbHeader header, int signal, int code, int before, int after) throws IOException {
+        int[] starts = windowStarts(positions(code), before, after, header.getNumSamples());
+        return WfdbReader.readWindows(header, signal, starts, before + after);
+    }
+
+    // The windows above after filtering: each window gets a fresh copy of the filter, primed on the warmup
+    // samples before the window so its start-up transient has died out by the time the window begins
+    public double[][] filterWindows(double[] signal, int code, int before, int after, int warmup, BlockFilter filter) {
+        int[] starts = windowStarts(positions(code), before + warmup, after, signal.length);
+        double[][] windows = new double[starts.length][before + after];
+        double[] primed = new double[warmup];
+        for (int k = 0; k < starts.length; k++) {
+            BlockFilter f = filter.copy();
+            f.process(signal, starts[k], primed, 0, warmup);
+            f.process(signal, starts[k] + warmup, windows[k], 0, before + after);
+        }
+        return windows;
+    }
+
+    // Start of each [p - before, p + after) that lies inside [0, length)
+    static int[] windowStarts(int[] positions, int before, int after, int length) {
+        int[] starts = new int[positions.length];
+        int n = 0;
+        for (int p : positions) {
+            if (p - before >= 0 && (long) p + after <= length) {
+                starts[n++] = p - before;
+            }
+        }
+        return Arrays.copyOf(starts, n);
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Parses WFDB annotation files (MIT format, e.g. MIT-BIH .atr) into an AnnotationIndex.
+//
+// The file is a sequence of little-endian 16-bit words: the top 6 bits are a code, the low 10 bits a
+// value. Codes 1..49 are annotations whose value is the sample delta from the previous one; the
+// pseudo-codes modify it: SKIP (59) adds the 32-bit delta in the next two words (high word first),
+// NUM/SUB/CHN (60..62) set fields of the current annotation, AUX (63) is followed by value bytes
+// of text (padded to even). A zero word ends the file.
+public class AnnotationReader {
+    private static final int SKIP = 59;
+    private static final int NUM = 60;
+    private static final int SUB = 61;
+    private static final int CHN = 62;
+    private static final int AUX = 63;
+
+    public static AnnotationIndex read(String path) throws IOException {
+        return read(Paths.get(path));
+    }
+
+    public static AnnotationIndex read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return parse(buffer, path.toString());
+        }
+    }
+
+    static AnnotationIndex parse(MappedByteBuffer buffer, String name) throws IOException {
+        int capacity = Math.max(16, buffer.limit() / 2);
+        int[] samples = new int[capacity];
+        byte[] codes = new byte[capacity];
+        byte[] subtypes = new byte[capacity];
+        byte[] channels = new byte[capacity];
+        int count = 0;
+        long time = 0;
+        int chan = 0; // CHN persists across annotations until changed
+        boolean sorted = true;
+
+        int pos = 0;
+        int end = buffer.limit() & ~1;
+        while (pos + 2 <= end) {
+            int word = buffer.getShort(pos) & 0xFFFF;
+            pos += 2;
+            int code = word >>> 10;
+            int value = word & 0x3FF;
+            if (code == 0 && value == 0) {
+                break;
+            }
+            switch (code) {
+                case SKIP:
+                    if (pos + 4 > end) {
+                        throw new IOException("Truncated SKIP in " + name);
+                    }
+                    int high = buffer.getShort(pos) & 0xFFFF;
+                    int low = buffer.getShort(pos + 2) & 0xFFFF;
+                    time += (high << 16) | low;
+                    pos += 4;
+                    break;
+                case NUM:
+                    break; // annotator number, not indexed
+                case SUB:
+                    if (count > 0) {
+                        subtypes[count - 1] = (byte) value;
+                    }
+                    break;
+                case CHN:
+                    chan = value;
+                    if (count > 0) {
+                        channels[count - 1] = (byte) value;
+                    }
+                    break;
+                case AUX:
+                    pos += (value + 1) & ~1;
+                    break;
+                default:
+                    time += value;
+                    if (time > Integer.MAX_VALUE) {
+                        throw new IOException("Annotation time out of range in " + name);
+                    }
+                    if (count > 0 && time < samples[count - 1]) {
+                        sorted = false;
+                    }
+                    samples[count] = (int) time;
+                    codes[count] = (byte) code;
+                    channels[count] = (byte) chan;
+                    count++;
+                    break;
+            }
+        }
+        samples = Arrays.copyOf(samples, count);
+        codes = Arrays.copyOf(codes, count);
+        subtypes = Arrays.copyOf(subtypes, count);
+        channels = Arrays.copyOf(channels, count);
+        if (!sorted) {
+            sortByTime(samples, codes, subtypes, channels);
+        }
+        return new AnnotationIndex(samples, codes, subtypes, channels);
+    }
+
+    // Stable sort of all columns by sample position (files are normally already in order)
+    private static void sortByTime(int[] samples, byte[] codes, byte[] subtypes, byte[] channels) {
+        Integer[] order = new Integer[samples.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(samples[a], samples[b]));
+        int[] s = samples.clone();
+        byte[] c = codes.clone();
+        byte[] t = subtypes.clone();
+        byte[] h = channels.clone();
+        for (int i = 0; i < order.length; i++) {
+            samples[i] = s[order[i]];
+            codes[i] = c[order[i]];
+            subtypes[i] = t[order[i]];
+            channels[i] = h[order[i]];
+        }
+    }
+}
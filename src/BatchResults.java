@@ -0,0 +1,58 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Thread-safe collection of per-record result rows. Rows are kept sorted by key, so the CSV comes out
+// in the same order no matter which record finished first.
+public class BatchResults {
+    private final String[] header;
+    private final ConcurrentSkipListMap<String, String[]> rows = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Throwable> failures = new ConcurrentSkipListMap<>();
+
+    public BatchResults(String[] header) {
+        this.header = header.clone();
+    }
+
+    public void add(String key, String[] row) {
+        if (rows.putIfAbsent(key, row) != null) {
+            throw new IllegalArgumentException("Duplicate result key: " + key);
+        }
+    }
+
+    public void fail(String key, Throwable cause) {
+        failures.put(key, cause);
+    }
+
+    public String[] getHeader() {
+        return header.clone();
+    }
+
+    // Rows in key order
+    public List<String[]> getRows() {
+        return new ArrayList<>(rows.values());
+    }
+
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    // Header line, then one line per row in key order
+    public void writeCsv(String filePath) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write(String.join(",", header));
+            writer.newLine();
+            for (String[] row : rows.values()) {
+                writer.write(String.join(",", row));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Runs one job per input file with whole records processed concurrently. Each record is read on its own
+// virtual thread (I/O waits cost no platform thread), then its compute job runs on the bounded DspRuntime
+// pool. At most maxInFlight records are loaded at once, which bounds memory. Rows go into a BatchResults
+// keyed by file path, so the output order is deterministic. With maxInFlight 1 records run strictly one at
+// a time; otherwise per-record wall-clock timings include other records' work, so the columns named in
+// setTimingColumns are left empty and only whole-batch throughput is meaningful.
+public class BatchRunner<D> {
+    // Reads one record (runs on a virtual thread)
+    public interface Loader<D> {
+        D load(File file) throws IOException;
+    }
+
+    // Computes one result row from a loaded record (runs on the DspRuntime pool)
+    public interface Job<D> {
+        String[] process(File file, D data) throws Exception;
+    }
+
+    private final Loader<D> loader;
+    private final Job<D> job;
+    private final int maxInFlight;
+    private final Set<String> timingColumns = new HashSet<>();
+
+    public BatchRunner(Loader<D> loader, Job<D> job, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1, got " + maxInFlight);
+        }
+        this.loader = loader;
+        this.job = job;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // Up to two records per pool worker: one computing, one loading
+    public BatchRunner(Loader<D> loader, Job<D> job) {
+        this(loader, job, 2 * DspRuntime.getParallelism());
+    }
+
+    // Records in flight for -Ddsp.batch: "serial" (the default) runs records one at a time so per-record
+    // timings see an otherwise idle pool; "concurrent" overlaps them for whole-batch throughput
+    public static int configuredInFlight() {
+        String mode = System.getProperty("dsp.batch", "serial");
+        if ("concurrent".equalsIgnoreCase(mode)) {
+            return 2 * DspRuntime.getParallelism();
+        }
+        if (!"serial".equalsIgnoreCase(mode)) {
+            System.err.println("Ignoring invalid dsp.batch=" + mode);
+        }
+        return 1;
+    }
+
+    // Columns measured per record in wall-clock time; left empty when records run concurrently
+    public void setTimingColumns(String... columns) {
+        timingColumns.clear();
+        timingColumns.addAll(Arrays.asList(columns));
+    }
+
+    public boolean isConcurrent() {
+        return maxInFlight > 1;
+    }
+
+    // Process every file; failed records are reported on stderr and listed in getFailures()
+    public BatchResults run(String[] header, List<File> files) throws InterruptedException {
+        BatchResults results = new BatchResults(header);
+        boolean[] blank = new boolean[header.length];
+        for (int i = 0; i < header.length; i++) {
+            blank[i] = isConcurrent() && timingColumns.contains(header[i]);
+        }
+        ExecutionPlanner.ensureCalibrated(); // measure on an idle pool, not inside the first record's job
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService pool = DspRuntime.pool();
+        try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File file : files) {
+                inFlight.acquire();
+                io.submit(() -> {
+                    String key = file.getPath();
+                    try {
+                        D data = loader.load(file);
+                        String[] row = pool.submit(() -> job.process(file, data)).get();
+                        for (int i = 0; i < row.length && i < blank.length; i++) {
+                            if (blank[i]) {
+                                row[i] = "";
+                            }
+                        }
+                        results.add(key, row);
+                    } catch (ExecutionException e) {
+                        results.fail(key, e.getCause());
+                        System.err.println("Failed to process " + key + ": " + e.getCause());
+                    } catch (IOException | RuntimeException | Error e) {
+                        // An Error (e.g. OutOfMemoryError decoding a huge record) would otherwise sit unread in the Future
+                        results.fail(key, e);
+                        System.err.println("Failed to read " + key + ": " + e);
+                    } catch (InterruptedException e) {
+                        results.fail(key, e);
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() waits for every record
+        return results;
+    }
+
+    // Files with the given suffix in each directory, sorted by name; missing directories are skipped with a warning
+    public static List<File> findFiles(String suffix, File... dirs) {
+        List<File> files = new ArrayList<>();
+        for (File dir : dirs) {
+            File[] found = dir.listFiles((d, name) -> name.endsWith(suffix));
+            if (found == null) {
+                System.err.println("Not a readable directory, skipping: " + dir);
+                continue;
+            }
+            Arrays.sort(found);
+            files.addAll(Arrays.asList(found));
+        }
+        return files;
+    }
+}
@@ -1,21 +1,29 @@
 import java.io.*;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 public class Benchmark {
+    private static final SignalCache CACHE = SignalCache.getDefault(); // decoded records, reused across runs
 
-    public static void main(String[] args) throws ExecutionException, IOException {
-        String dataDirectory = "E:\\Java_2025\\data\\MIMIC-III-Waveform-Database\\"; // Directory containing .dat and .hea files
-        File dir = new File(dataDirectory);
-
-        // List to store results for each file
-        List<String[]> results = new ArrayList<>();
+    // Usage: Benchmark [output.csv] [record directory ...]
+    // Records from all directories (e.g. MIT-BIH, its x_mitdb subset, MIMIC-III) are benchmarked one at a
+    // time so each row's timings have the pool to themselves; with -Ddsp.batch=concurrent they overlap, the
+    // time columns are left empty and only whole-batch throughput is reported. The CSV lists records in path
+    // order. Records at different native rates are resampled to one common rate first (-Ddsp.rate=<Hz>,
+    // default the lowest native rate).
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String outputFile = args.length > 0 ? args[0] : "benchmark_results_SpO2.csv";
+        String[] dataDirectories = args.length > 1
+                ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[]{"E:\\Java_2025\\data\\MIMIC-III-Waveform-Database\\"}; // Directory containing .dat and .hea files
+        File[] dirs = new File[dataDirectories.length];
+        for (int i = 0; i < dirs.length; i++) {
+            dirs[i] = new File(dataDirectories[i]);
+        }
 
-        // Add CSV header
-        results.add(new String[]{
+        // CSV header
+        String[] header = {
                 "File Name",
                 "Non-threaded Cascade Time (ns)",
                 "SNR Cascade",
@@ -28,148 +36,172 @@ public class Benchmark {
                 "MSE Series",
                 "Threaded Series Time (ns)",
                 "SNR Threaded Series",
-                "MSE Threaded Series"
-        });
+                "MSE Threaded Series",
+                "Float32 Cascade Time (ns)",
+                "SNR Float32 Cascade",
+                "MSE Float32 Cascade",
+                "Wavelet Denoise Time (ns)",
+                "SNR Wavelet Denoise",
+                "MSE Wavelet Denoise"
+        };
 
-        // Process each .dat file in the directory
-        for (File file : dir.listFiles()) {
-            if (file.getName().endsWith(".dat")) {
-                String datFilePath = file.getAbsolutePath();
-                String headerFilePath = datFilePath.replace(".dat", ".hea");
+        // Process each .dat file: read on a virtual thread, benchmark on the shared DSP pool
+        List<File> records = BatchRunner.findFiles(".dat", dirs);
+        double rate = commonRate(records);
+        if (rate > 0) {
+            System.out.println("Resampling records to " + rate + " Hz");
+        }
+        BatchRunner<double[]> runner = new BatchRunner<>(
+                file -> readDatFile(file.getAbsolutePath(), headerPath(file), rate),
+                Benchmark::benchmarkRecord, BatchRunner.configuredInFlight());
+        runner.setTimingColumns(Arrays.stream(header).filter(column -> column.endsWith("Time (ns)")).toArray(String[]::new));
+        long startTime = System.nanoTime();
+        BatchResults results = runner.run(header, records);
+        long elapsed = System.nanoTime() - startTime;
+        System.out.printf("Processed %d of %d records %s in %.1f ms (%.1f records/s, %s)%n", results.size(), records.size(),
+                runner.isConcurrent() ? "concurrently" : "one at a time", elapsed / 1e6, results.size() / (elapsed / 1e9),
+                DspRuntime.describe());
 
-                // Read the ECG signal from the .dat file
-                double[] ecgSignal = readDatFile(datFilePath, headerFilePath);
+        // Write results to a CSV file
+        results.writeCsv(outputFile);
+    }
 
-                // Process the ECG signal (e.g., denoising)
-                double lowCutoff = 0.2; // Low cutoff frequency for filtering
-                double highCutoff = 0.8; // High cutoff frequency for filtering
-                Filter filter = new Filter(); // Initialize filter
-                Cascade cascade = new Cascade(); // Initialize cascade
-                Series series = new Series(); // Initialize series
+    // All variants on one record; timings are only kept when no other record shares the pool
+    private static String[] benchmarkRecord(File file, double[] ecgSignal) throws InterruptedException, ExecutionException {
+        // Process the ECG signal (e.g., denoising)
+        double lowCutoff = 0.2; // Low cutoff frequency for filtering
+        double highCutoff = 0.8; // High cutoff frequency for filtering
+        Filter filter = new Filter(); // Initialize filter
+        Cascade cascade = new Cascade(); // Initialize cascade
+        Series series = new Series(); // Initialize series
 
-                // Benchmarking non-threaded cascade
-                long startTime = System.nanoTime();
-                double[] filteredSignalCascade = cascade.applyCascade(ecgSignal, lowCutoff, highCutoff, filter);
-                long endTime = System.nanoTime();
-                long cascadeTime = endTime - startTime;
-                double cascadeSNR = calculateSNR(ecgSignal, filteredSignalCascade);
-                double cascadeMSE = calculateMSE(ecgSignal, filteredSignalCascade);
+        // Benchmarking non-threaded cascade
+        long startTime = System.nanoTime();
+        double[] filteredSignalCascade = cascade.applyCascade(ecgSignal, lowCutoff, highCutoff, filter);
+        long endTime = System.nanoTime();
+        long cascadeTime = endTime - startTime;
+        double cascadeSNR = calculateSNR(ecgSignal, filteredSignalCascade);
+        double cascadeMSE = calculateMSE(ecgSignal, filteredSignalCascade);
 
-                // Benchmarking threaded cascade
-                startTime = System.nanoTime();
-                double[] filteredSignalCascadeThreaded;
-                try {
-                    filteredSignalCascadeThreaded = cascade.applyCascadeWithThreads(ecgSignal, lowCutoff, highCutoff, filter);
-                } catch (InterruptedException e) {
-                    System.err.println("Thread was interrupted: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-                endTime = System.nanoTime();
-                long cascadeThreadedTime = endTime - startTime;
-                double cascadeThreadedSNR = calculateSNR(ecgSignal, filteredSignalCascadeThreaded);
-                double cascadeThreadedMSE = calculateMSE(ecgSignal, filteredSignalCascadeThreaded);
+        // Benchmarking threaded cascade
+        startTime = System.nanoTime();
+        double[] filteredSignalCascadeThreaded = cascade.applyCascadeWithThreads(ecgSignal, lowCutoff, highCutoff, filter);
+        endTime = System.nanoTime();
+        long cascadeThreadedTime = endTime - startTime;
+        System.out.println(file.getName() + " threaded cascade plan: " + cascade.getLastPlan());
+        double cascadeThreadedSNR = calculateSNR(ecgSignal, filteredSignalCascadeThreaded);
+        double cascadeThreadedMSE = calculateMSE(ecgSignal, filteredSignalCascadeThreaded);
 
-                // Benchmarking non-threaded series
-                startTime = System.nanoTime();
-                double[] filteredSignalSeries = series.applySeries(ecgSignal, lowCutoff, highCutoff, filter);
-                endTime = System.nanoTime();
-                long seriesTime = endTime - startTime;
-                double seriesSNR = calculateSNR(ecgSignal, filteredSignalSeries);
-                double seriesMSE = calculateMSE(ecgSignal, filteredSignalSeries);
+        // Benchmarking non-threaded series
+        startTime = System.nanoTime();
+        double[] filteredSignalSeries = series.applySeries(ecgSignal, lowCutoff, highCutoff, filter);
+        endTime = System.nanoTime();
+        long seriesTime = endTime - startTime;
+        double seriesSNR = calculateSNR(ecgSignal, filteredSignalSeries);
+        double seriesMSE = calculateMSE(ecgSignal, filteredSignalSeries);
 
-                // Benchmarking threaded series
-                startTime = System.nanoTime();
-                double[] filteredSignalSeriesThreaded;
-                try {
-                    filteredSignalSeriesThreaded = series.applySeriesWithThreads(ecgSignal, lowCutoff, highCutoff, filter);
-                } catch (InterruptedException e) {
-                    System.err.println("Thread was interrupted: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-                endTime = System.nanoTime();
-                long seriesThreadedTime = endTime - startTime;
-                double seriesThreadedSNR = calculateSNR(ecgSignal, filteredSignalSeriesThreaded);
-                double seriesThreadedMSE = calculateMSE(ecgSignal, filteredSignalSeriesThreaded);
+        // Benchmarking threaded series
+        startTime = System.nanoTime();
+        double[] filteredSignalSeriesThreaded = series.applySeriesWithThreads(ecgSignal, lowCutoff, highCutoff, filter).get("band-pass");
+        endTime = System.nanoTime();
+        long seriesThreadedTime = endTime - startTime;
+        System.out.println(file.getName() + " threaded series plan: " + series.getLastPlan());
+        double seriesThreadedSNR = calculateSNR(ecgSignal, filteredSignalSeriesThreaded);
+        double seriesThreadedMSE = calculateMSE(ecgSignal, filteredSignalSeriesThreaded);
 
-                // Add results to the list
-                results.add(new String[]{
-                        file.getName(),
-                        String.valueOf(cascadeTime),
-                        String.valueOf(cascadeSNR),
-                        String.valueOf(cascadeMSE),
-                        String.valueOf(cascadeThreadedTime),
-                        String.valueOf(cascadeThreadedSNR),
-                        String.valueOf(cascadeThreadedMSE),
-                        String.valueOf(seriesTime),
-                        String.valueOf(seriesSNR),
-                        String.valueOf(seriesMSE),
-                        String.valueOf(seriesThreadedTime),
-                        String.valueOf(seriesThreadedSNR),
-                        String.valueOf(seriesThreadedMSE)
-                });
-            }
-        }
+        // Benchmarking float32 cascade (stages near instability stay in double, see FloatBlockFilter.Precision)
+        float[] ecgFloat = FloatSignal.toFloat(ecgSignal);
+        startTime = System.nanoTime();
+        float[] filteredFloat = cascade.applyCascade(ecgFloat, lowCutoff, highCutoff, filter, FloatBlockFilter.Precision.AUTO);
+        endTime = System.nanoTime();
+        long floatCascadeTime = endTime - startTime;
+        double[] filteredSignalFloat = FloatSignal.toDouble(filteredFloat);
+        double floatCascadeSNR = calculateSNR(ecgSignal, filteredSignalFloat);
+        double floatCascadeMSE = calculateMSE(ecgSignal, filteredSignalFloat);
 
-        // Write results to a CSV file
-        writeResultsToCSV(results, "benchmark_results_SpO2.csv");
+        // Benchmarking wavelet denoising (sym8, 5 levels, soft universal threshold)
+        WaveletDenoising wavelet = new WaveletDenoising();
+        startTime = System.nanoTime();
+        double[] denoisedSignal = wavelet.applyWaveletDenoise(ecgSignal);
+        endTime = System.nanoTime();
+        long waveletTime = endTime - startTime;
+        double waveletSNR = calculateSNR(ecgSignal, denoisedSignal);
+        double waveletMSE = calculateMSE(ecgSignal, denoisedSignal);
+
+        return new String[]{
+                file.getName(),
+                String.valueOf(cascadeTime),
+                String.valueOf(cascadeSNR),
+                String.valueOf(cascadeMSE),
+                String.valueOf(cascadeThreadedTime),
+                String.valueOf(cascadeThreadedSNR),
+                String.valueOf(cascadeThreadedMSE),
+                String.valueOf(seriesTime),
+                String.valueOf(seriesSNR),
+                String.valueOf(seriesMSE),
+                String.valueOf(seriesThreadedTime),
+                String.valueOf(seriesThreadedSNR),
+                String.valueOf(seriesThreadedMSE),
+                String.valueOf(floatCascadeTime),
+                String.valueOf(floatCascadeSNR),
+                String.valueOf(floatCascadeMSE),
+                String.valueOf(waveletTime),
+                String.valueOf(waveletSNR),
+                String.valueOf(waveletMSE)
+        };
     }
 
-    // Write results to a CSV file
-    private static void writeResultsToCSV(List<String[]> results, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] row : results) {
-                writer.write(String.join(",", row));
-                writer.newLine();
-            }
-        }
+    // Read the first signal of a WFDB record (MIT-BIH format 212, MIMIC-III format 80, or format 16),
+    // from the signal cache when the record has not changed since the last run; resampled to rate if positive
+    private static double[] readDatFile(String datFilePath, String headerFilePath, double rate) throws IOException {
+        SignalCache.Entry entry = rate > 0 ? CACHE.loadWfdb(headerFilePath, rate) : CACHE.loadWfdb(headerFilePath);
+        return entry.getChannel(0);
     }
 
-    // Read a .dat file from the MIT-BIH Arrhythmia Database
-    private static double[] readDatFile(String datFilePath, String headerFilePath) throws IOException {
-        int numSamples = getNumSamplesFromHeader(headerFilePath);
-        try (DataInputStream dis = new DataInputStream(new FileInputStream(datFilePath))) {
-            double[] signal = new double[numSamples];
-            byte[] buffer = new byte[2];
-            for (int i = 0; i < numSamples; i++) {
-                dis.readFully(buffer);
-                int rawValue = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN).getShort() & 0xFFFF;
-                signal[i] = (rawValue - 2048) * 5.0 / 1000.0; // Convert to µV
-            }
-            return signal;
-        }
+    private static String headerPath(File datFile) {
+        return datFile.getAbsolutePath().replace(".dat", ".hea");
     }
 
-    // Get the number of samples from the .hea file
-    private static int getNumSamplesFromHeader(String headerFilePath) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(headerFilePath))) {
-            String line = reader.readLine();
-            String[] parts = line.split(" ");
-            return Integer.parseInt(parts[3]);
+    // The dsp.rate property if set, else the lowest native rate when the records mix rates (MIT-BIH at 360 Hz
+    // with MIMIC-III at 125 Hz), so every row filters the same band; 0 keeps native rates
+    private static double commonRate(List<File> records) {
+        String configured = System.getProperty("dsp.rate");
+        if (configured != null) {
+            try {
+                double rate = Double.parseDouble(configured.trim());
+                if (rate > 0) {
+                    return rate;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the native rates below
+            }
+            System.err.println("Ignoring invalid dsp.rate=" + configured);
+        }
+        double lowest = Double.MAX_VALUE;
+        double highest = 0;
+        for (File record : records) {
+            try {
+                double rate = WfdbHeader.parse(headerPath(record)).getSampleRate();
+                lowest = Math.min(lowest, rate);
+                highest = Math.max(highest, rate);
+            } catch (IOException e) {
+                // reported when the record itself is read
+            }
         }
+        return lowest < highest ? lowest : 0;
     }
 
     // Calculate Signal-to-Noise Ratio (SNR)
     private static double calculateSNR(double[] original, double[] filtered) {
-        double signalPower = 0;
-        double noisePower = 0;
-        for (int i = 0; i < original.length; i++) {
-            signalPower += Math.pow(original[i], 2);
-            double noise = original[i] - filtered[i];
-            noisePower += Math.pow(noise, 2);
-        }
+        SignalMath math = SignalMath.get();
+        double signalPower = math.sumOfSquares(original);
+        double noisePower = math.squaredDistance(original, filtered);
         return 10 * Math.log10(signalPower / noisePower);
     }
 
     // Calculate Mean Squared Error (MSE)
     private static double calculateMSE(double[] original, double[] filtered) {
-        double mse = 0;
-        for (int i = 0; i < original.length; i++) {
-            double error = original[i] - filtered[i];
-            mse += Math.pow(error, 2);
-        }
-        return mse / original.length;
+        return SignalMath.get().squaredDistance(original, filtered) / original.length;
     }
 }
 //
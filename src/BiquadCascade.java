@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+// Cascade of second-order IIR sections in transposed direct form II.
+// Coefficients are shared and read-only; each instance owns its delay-line state.
+public class BiquadCascade implements LinearFilter {
+    private static final int TILE = 256; // samples pushed through all sections while still in L1
+
+    private final double[] sos;   // {b0, b1, b2, a1, a2} per section
+    private final double[] state; // {s1, s2} per section
+    private final int sections;
+
+    public BiquadCascade(double[] sos) {
+        if (sos.length % 5 != 0) {
+            throw new IllegalArgumentException("Second-order sections need 5 coefficients each, got " + sos.length);
+        }
+        this.sos = sos;
+        this.sections = sos.length / 5;
+        this.state = new double[2 * sections];
+    }
+
+    public int getNumSections() {
+        return sections;
+    }
+
+    public double[] getCoefficients() {
+        return sos;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        if (sections == 0) {
+            if (in != out || inOff != outOff) {
+                System.arraycopy(in, inOff, out, outOff, len);
+            }
+            return;
+        }
+        for (int start = 0; start < len; start += TILE) {
+            int n = Math.min(TILE, len - start);
+            double[] src = in;
+            int srcOff = inOff + start;
+            int dstOff = outOff + start;
+            for (int s = 0; s < sections; s++) {
+                int c = 5 * s;
+                double b0 = sos[c], b1 = sos[c + 1], b2 = sos[c + 2], a1 = sos[c + 3], a2 = sos[c + 4];
+                double s1 = state[2 * s], s2 = state[2 * s + 1];
+                for (int i = 0; i < n; i++) {
+                    double x = src[srcOff + i];
+                    double y = b0 * x + s1;
+                    s1 = b1 * x - a1 * y + s2;
+                    s2 = b2 * x - a2 * y;
+                    out[dstOff + i] = y;
+                }
+                state[2 * s] = s1;
+                state[2 * s + 1] = s2;
+                src = out;
+                srcOff = dstOff;
+            }
+        }
+    }
+
+    // Filter a whole signal in place
+    public void process(double[] signal) {
+        process(signal, 0, signal, 0, signal.length);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0.0);
+    }
+
+    @Override
+    public int getStateSize() {
+        return state.length;
+    }
+
+    @Override
+    public void getState(double[] dst, int off) {
+        System.arraycopy(state, 0, dst, off, state.length);
+    }
+
+    @Override
+    public void setState(double[] src, int off) {
+        System.arraycopy(src, off, state, 0, state.length);
+    }
+
+    @Override
+    public BiquadCascade copy() {
+        return new BiquadCascade(sos);
+    }
+}
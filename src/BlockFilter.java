@@ -0,0 +1,19 @@
+// A stateful filter fed in blocks: the delay line carries over between process() calls,
+// so feeding a signal in pieces gives the same output as one call over the whole signal.
+public interface BlockFilter {
+    // Filter len samples from in into out; in and out may be the same region (in-place)
+    void process(double[] in, int inOff, double[] out, int outOff, int len);
+
+    // Clear the delay line
+    void reset();
+
+    // Same configuration, fresh state
+    BlockFilter copy();
+
+    // Filter a whole signal into a new array, continuing from the current state
+    default double[] apply(double[] signal) {
+        double[] output = new double[signal.length];
+        process(signal, 0, output, 0, signal.length);
+        return output;
+    }
+}
@@ -1,31 +1,44 @@
 public class ButterworthFilter {
 
-    private int order; // Filter order
-    private double cutoffFrequency; // Normalized cutoff frequency
+    private final int order; // Filter order
+    private final double cutoffFrequency; // Cutoff frequency, in the units of sampleRate
+    private final double sampleRate; // 2.0 when the cutoff is normalized to Nyquist
 
     public ButterworthFilter(int order, double cutoffFrequency) {
+        this(order, cutoffFrequency, 2.0);
+    }
+
+    public ButterworthFilter(int order, double cutoffFrequency, double sampleRate) {
         this.order = order;
         this.cutoffFrequency = cutoffFrequency;
+        this.sampleRate = sampleRate;
     }
 
     public double[] applyLowPassFilter(double[] signal) {
-        double[] output = new double[signal.length];
-        double[] coefficients = calculateCoefficients();
-
-        // Apply the filter
-        for (int i = 0; i < signal.length; i++) {
-            output[i] = signal[i];
-            for (int j = 1; j < Math.min(i, coefficients.length); j++) {
-                output[i] += coefficients[j] * signal[i - j];
-            }
-        }
+        return apply(IirDesign.Type.LOW_PASS, cutoffFrequency, 0, signal);
+    }
+
+    // Filter a copy of the signal from zero state
+    public double[] apply(IirDesign.Type type, double f1, double f2, double[] signal) {
+        double[] output = signal.clone();
+        design(type, f1, f2).process(output);
         return output;
     }
 
-    private double[] calculateCoefficients() {
-        // Calculate Butterworth filter coefficients (placeholder)
-        // You can expand this based on filter design principles
-        return new double[]{1.0, -1.0}; // Replace with real coefficients
+    // A fresh cascade for the given response; f2 is only used for band-pass
+    public BiquadCascade design(IirDesign.Type type, double f1, double f2) {
+        return new BiquadCascade(IirDesign.butterworth(type, order, f1, f2, sampleRate));
     }
-}
 
+    public int getOrder() {
+        return order;
+    }
+
+    public double getCutoffFrequency() {
+        return cutoffFrequency;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+}
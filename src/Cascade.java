@@ -1,8 +1,25 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 import java.util.concurrent.*;
 public class Cascade {
+    private ExecutionPlan lastPlan;
+
+    // Low-pass, then high-pass, then band-pass, fused into a single pass over the signal
     public double[] applyCascade(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
+        return cascadeStages(lowCutoff, highCutoff, filter).apply(signal);
+    }
+
+    // Single-precision cascade; each stage runs at the given precision (AUTO keeps only near-unstable
+    // sections in double)
+    public float[] applyCascade(float[] signal, double lowCutoff, double highCutoff, Filter filter, FloatBlockFilter.Precision precision) {
+        FloatFilterChain chain = new FloatFilterChain();
+        for (LinearFilter stage : stageList(lowCutoff, highCutoff, filter)) {
+            chain.add(stage, precision);
+        }
+        return chain.apply(signal);
+    }
+
+    // Stage-by-stage reference: one full pass and one array per filter
+    public double[] applyCascadeUnfused(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
         // Apply Low-Pass Filter first
         double[] lowPassResult = filter.lowPassFilter(signal, lowCutoff);
 
@@ -13,24 +30,44 @@ public class Cascade {
         return filter.bandPassFilter(highPassResult, lowCutoff, highCutoff);
     }
 
-    // Threaded Cascade (same as sequential but using threads for each filter)
+    // Threaded cascade: the planner picks sequential, chunk-parallel or pipelined execution of the three
+    // stages for this signal length and core count, so the result always matches applyCascade
     public double[] applyCascadeWithThreads(double[] signal, double lowCutoff, double highCutoff, Filter filter) throws InterruptedException, ExecutionException {
-        ExecutorService executor = Executors.newFixedThreadPool(3);  // 3 filters to apply
-        List<Callable<double[]>> tasks = new ArrayList<>();
-
-        tasks.add(() -> filter.lowPassFilter(signal, lowCutoff));
-        tasks.add(() -> filter.highPassFilter(signal, highCutoff));
-        tasks.add(() -> filter.bandPassFilter(signal, lowCutoff, highCutoff));
+        double[] filteredSignal = new double[signal.length];
+        lastPlan = ExecutionPlanner.execute(stageList(lowCutoff, highCutoff, filter), signal, 0, filteredSignal, 0, signal.length);
+        return filteredSignal;
+    }
 
-        List<Future<double[]>> results = executor.invokeAll(tasks);
+    // How the last applyCascadeWithThreads call ran
+    public ExecutionPlan getLastPlan() {
+        return lastPlan;
+    }
 
-        // Wait for all tasks to finish and return the final result (cascade application)
-        executor.shutdown();
-        double[] finalResult = signal;
-        for (Future<double[]> result : results) {
-            finalResult = result.get(); // Apply the result of each filter
+    // Streaming cascade: pulls fixed-size blocks of one channel, so memory stays constant for any record length.
+    // The stages carry their state across blocks, so the output matches applyCascade on the whole record.
+    public void applyCascade(SignalSource source, int channel, int blockSize, double lowCutoff, double highCutoff, Filter filter, SignalSink sink) throws IOException {
+        BlockFilter stages = cascadeStages(lowCutoff, highCutoff, filter);
+        double[][] block = new double[source.getNumChannels()][blockSize];
+        double[] filtered = new double[blockSize];
+        int n;
+        while ((n = source.read(block, 0, blockSize)) >= 0) {
+            stages.process(block[channel], 0, filtered, 0, n);
+            sink.write(filtered, 0, n);
         }
+    }
+
+    // Low-pass, then high-pass, then band-pass, compiled into one fused stateful stage
+    public LinearFilter cascadeStages(double lowCutoff, double highCutoff, Filter filter) {
+        return FusedCascade.compile(stageList(lowCutoff, highCutoff, filter));
+    }
+
+    // The same stages as a pipeline with one worker thread per stage, for continuous streams: keep it open
+    // across blocks and close it when the stream ends
+    public PipelinedCascade pipelinedStages(double lowCutoff, double highCutoff, Filter filter, int blockSize) {
+        return new PipelinedCascade(blockSize, 4, stageList(lowCutoff, highCutoff, filter));
+    }
 
-        return finalResult;
+    private LinearFilter[] stageList(double lowCutoff, double highCutoff, Filter filter) {
+        return new LinearFilter[]{filter.lowPassStage(lowCutoff), filter.highPassStage(highCutoff), filter.bandPassStage(lowCutoff, highCutoff)};
     }
 }
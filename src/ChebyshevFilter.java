@@ -1,32 +1,50 @@
 public class ChebyshevFilter {
 
-    private int order; // Filter order
-    private double cutoffFrequency; // Normalized cutoff frequency
-    private double ripple; // Ripple factor in dB
+    private final int order; // Filter order
+    private final double cutoffFrequency; // Passband edge, in the units of sampleRate
+    private final double ripple; // Passband ripple in dB
+    private final double sampleRate; // 2.0 when the cutoff is normalized to Nyquist
 
     public ChebyshevFilter(int order, double cutoffFrequency, double ripple) {
+        this(order, cutoffFrequency, ripple, 2.0);
+    }
+
+    public ChebyshevFilter(int order, double cutoffFrequency, double ripple, double sampleRate) {
         this.order = order;
         this.cutoffFrequency = cutoffFrequency;
         this.ripple = ripple;
+        this.sampleRate = sampleRate;
     }
 
     public double[] applyLowPassFilter(double[] signal) {
-        double[] output = new double[signal.length];
-        double[] coefficients = calculateCoefficients();
-
-        // Apply the filter
-        for (int i = 0; i < signal.length; i++) {
-            output[i] = signal[i];
-            for (int j = 1; j < Math.min(i, coefficients.length); j++) {
-                output[i] += coefficients[j] * signal[i - j];
-            }
-        }
+        return apply(IirDesign.Type.LOW_PASS, cutoffFrequency, 0, signal);
+    }
+
+    // Filter a copy of the signal from zero state
+    public double[] apply(IirDesign.Type type, double f1, double f2, double[] signal) {
+        double[] output = signal.clone();
+        design(type, f1, f2).process(output);
         return output;
     }
 
-    private double[] calculateCoefficients() {
-        // Calculate Chebyshev filter coefficients (placeholder)
-        // You can expand this based on filter design principles
-        return new double[]{1.0, -0.9}; // Replace with real coefficients
+    // A fresh cascade for the given response; f2 is only used for band-pass
+    public BiquadCascade design(IirDesign.Type type, double f1, double f2) {
+        return new BiquadCascade(IirDesign.chebyshev1(type, order, ripple, f1, f2, sampleRate));
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public double getCutoffFrequency() {
+        return cutoffFrequency;
+    }
+
+    public double getRipple() {
+        return ripple;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
     }
 }
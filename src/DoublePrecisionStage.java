@@ -0,0 +1,42 @@
+// Runs a double-precision BlockFilter inside a float pipeline: each block is widened, filtered and narrowed,
+// so the filter's recursion and state stay in double.
+class DoublePrecisionStage implements FloatBlockFilter {
+    private static final int BLOCK = 1024;
+
+    private final BlockFilter filter;
+    private final double[] scratch;
+
+    DoublePrecisionStage(BlockFilter filter) {
+        this(filter, BLOCK);
+    }
+
+    // blockSize: samples widened and filtered per call of the double filter
+    DoublePrecisionStage(BlockFilter filter, int blockSize) {
+        this.filter = filter;
+        this.scratch = new double[blockSize];
+    }
+
+    @Override
+    public void process(float[] in, int inOff, float[] out, int outOff, int len) {
+        for (int start = 0; start < len; start += scratch.length) {
+            int n = Math.min(scratch.length, len - start);
+            for (int i = 0; i < n; i++) {
+                scratch[i] = in[inOff + start + i];
+            }
+            filter.process(scratch, 0, scratch, 0, n);
+            for (int i = 0; i < n; i++) {
+                out[outOff + start + i] = (float) scratch[i];
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        filter.reset();
+    }
+
+    @Override
+    public DoublePrecisionStage copy() {
+        return new DoublePrecisionStage(filter.copy(), scratch.length);
+    }
+}
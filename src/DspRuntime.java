@@ -0,0 +1,113 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One process-wide work-stealing pool shared by every parallel DSP path, so threads are created once
+// instead of per call. Size it with -Ddsp.threads=N (default: available processors) or configure();
+// shutdown() stops it, and the next pool() call starts a fresh one.
+public final class DspRuntime {
+    private static final AtomicInteger liveWorkers = new AtomicInteger();
+    private static final AtomicInteger workerIds = new AtomicInteger();
+    private static ForkJoinPool pool;
+
+    private DspRuntime() {
+    }
+
+    // The shared pool, started on first use
+    public static synchronized ExecutorService pool() {
+        if (pool == null || pool.isShutdown()) {
+            pool = new ForkJoinPool(defaultParallelism());
+        }
+        return pool;
+    }
+
+    // Number of workers in the shared pool (a good default chunk count)
+    public static int getParallelism() {
+        return ((ForkJoinPool) pool()).getParallelism();
+    }
+
+    // Replace the pool with one of the given size; work already submitted to the old pool still finishes
+    public static synchronized void configure(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    // Stop accepting work and wait up to timeoutMillis for running tasks; true if everything finished
+    public static boolean shutdown(long timeoutMillis) throws InterruptedException {
+        ForkJoinPool current;
+        synchronized (DspRuntime.class) {
+            current = pool;
+            pool = null;
+        }
+        if (current == null) {
+            return true;
+        }
+        current.shutdown();
+        return current.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // A dedicated daemon thread for long-running work that must not occupy a pool worker
+    // (pipeline stages, continuous streams); counted in getWorkerCount() while it runs
+    public static Thread startWorker(String name, Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                liveWorkers.decrementAndGet();
+            }
+        }, "dsp-" + name + "-" + workerIds.incrementAndGet());
+        thread.setDaemon(true);
+        liveWorkers.incrementAndGet();
+        thread.start();
+        return thread;
+    }
+
+    // Dedicated worker threads currently running
+    public static int getWorkerCount() {
+        return liveWorkers.get();
+    }
+
+    // Tasks waiting in worker and submission queues
+    public static synchronized long getQueuedTaskCount() {
+        return pool == null ? 0 : pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+
+    // Workers currently running or stealing tasks
+    public static synchronized int getActiveTaskCount() {
+        return pool == null ? 0 : pool.getActiveThreadCount();
+    }
+
+    public static synchronized String describe() {
+        if (pool == null) {
+            return "DspRuntime[not started, parallelism=" + defaultParallelism() + ", dedicated=" + liveWorkers.get() + "]";
+        }
+        return "DspRuntime[parallelism=" + pool.getParallelism()
+                + ", workers=" + pool.getPoolSize()
+                + ", active=" + pool.getActiveThreadCount()
+                + ", queued=" + (pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount())
+                + ", steals=" + pool.getStealCount()
+                + ", dedicated=" + liveWorkers.get() + "]";
+    }
+
+    private static int defaultParallelism() {
+        String configured = System.getProperty("dsp.threads");
+        if (configured != null) {
+            try {
+                int n = Integer.parseInt(configured.trim());
+                if (n > 0) {
+                    return n;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default below
+            }
+            System.err.println("Ignoring invalid dsp.threads=" + configured);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
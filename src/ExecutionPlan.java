@@ -0,0 +1,62 @@
+// How one filtering call will run, as chosen by ExecutionPlanner, with the cost estimates behind the choice
+public class ExecutionPlan {
+    public enum Mode {
+        SEQUENTIAL,     // one pass on the calling thread
+        CHUNK_PARALLEL, // time chunks on the shared pool, states stitched (ParallelRecurrence)
+        PIPELINE        // one worker per stage, blocks passed along ring buffers (PipelinedCascade)
+    }
+
+    private final Mode mode;
+    private final int length;
+    private final int sections;
+    private final int chunks;
+    private final int chunkSize;
+    private final double sequentialNanos;
+    private final double estimatedNanos;
+
+    public ExecutionPlan(Mode mode, int length, int sections, int chunks, int chunkSize, double sequentialNanos, double estimatedNanos) {
+        this.mode = mode;
+        this.length = length;
+        this.sections = sections;
+        this.chunks = chunks;
+        this.chunkSize = chunkSize;
+        this.sequentialNanos = sequentialNanos;
+        this.estimatedNanos = estimatedNanos;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getSections() {
+        return sections;
+    }
+
+    // Number of parallel tasks: 1 when sequential, the stage count for a pipeline
+    public int getChunks() {
+        return chunks;
+    }
+
+    // Samples per task, or per block passed between pipeline stages
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public double getSequentialNanos() {
+        return sequentialNanos;
+    }
+
+    public double getEstimatedNanos() {
+        return estimatedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[samples=%d, sections=%d, chunks=%d, chunkSize=%d, est=%.0f us, sequential=%.0f us]",
+                mode, length, sections, chunks, chunkSize, estimatedNanos / 1e3, sequentialNanos / 1e3);
+    }
+}
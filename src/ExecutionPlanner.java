@@ -0,0 +1,284 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Decides per call how a linear filter (or a cascade of them) should run, using costs measured once at
+// startup: nanoseconds per sample per second-order section, per task dispatched to the shared DspRuntime
+// pool, per dedicated thread started, and per block handed between pipeline stages.
+//
+// Chunk-parallel cost for k chunks (see ParallelRecurrence):
+//   dispatch of two task rounds + zero-state pass over min(horizon, n/k) samples
+//   + boundary scan (matrix powers of the 2s x 2s transition) + full pass over n/k samples
+// Pipeline cost for S stages and blocks of B samples (see PipelinedCascade):
+//   S thread starts + (n/B + S - 1) * (B * slowest stage + hand-off)
+// against n * sections for the sequential pass. -Ddsp.plan=sequential|parallel|pipeline forces a mode
+// (when it is possible at all).
+public final class ExecutionPlanner {
+    private static final int MIN_CHUNK = 4096;      // ParallelRecurrence will not split finer than this
+    private static final double MARGIN = 0.8;       // a parallel mode must be estimated at least 20% faster
+    private static final int CALIBRATION_SAMPLES = 1 << 16;
+    private static final int[] PIPELINE_BLOCKS = {1024, 4096, 16384};
+    private static final int PIPELINE_DEPTH = 4;
+
+    private static volatile double sectionNanos;    // per sample per section
+    private static volatile double dispatchNanos;   // per pool task
+    private static volatile double threadNanos;     // per dedicated thread started and joined
+    private static volatile double handoffNanos;    // per block passed between pipeline stages
+    private static volatile ExecutionPlan lastPlan;
+    private static volatile boolean calibrated;     // set after the costs above are all written
+
+    private ExecutionPlanner() {
+    }
+
+    // Measure the costs (runs once, on first use or from ensureCalibrated(); call again to re-measure)
+    public static synchronized void calibrate() throws InterruptedException, ExecutionException {
+        double[] signal = new double[CALIBRATION_SAMPLES];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = Math.sin(0.01 * i) + 0.1 * ((i * 7919) % 13 - 6);
+        }
+        double[] section = {0.2, 0.4, 0.2, -0.5, 0.2};
+        double[] sos = new double[5 * 4];
+        for (int s = 0; s < 4; s++) {
+            System.arraycopy(section, 0, sos, 5 * s, 5);
+        }
+        FusedCascade fused = FusedCascade.compile(new BiquadCascade(sos));
+        double[] out = new double[signal.length];
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 8; run++) {
+            fused.reset();
+            long start = System.nanoTime();
+            fused.process(signal, 0, out, 0, signal.length);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perSection = (double) best / (signal.length * 4.0);
+
+        ExecutorService pool = DspRuntime.pool();
+        int tasks = Math.max(2, DspRuntime.getParallelism());
+        List<Callable<Void>> noops = new ArrayList<>();
+        for (int k = 0; k < tasks; k++) {
+            noops.add(() -> null);
+        }
+        long[] rounds = new long[32];
+        for (int run = 0; run < rounds.length; run++) {
+            long start = System.nanoTime();
+            for (Future<Void> future : pool.invokeAll(noops)) {
+                future.get();
+            }
+            rounds[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(rounds);
+        double perTask = (double) rounds[rounds.length / 2] / tasks;
+
+        long[] starts = new long[8];
+        for (int run = 0; run < starts.length; run++) {
+            long start = System.nanoTime();
+            DspRuntime.startWorker("calibration", () -> { }).join();
+            starts[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(starts);
+        double perThread = starts[starts.length / 2];
+
+        // Hand-off cost only means something when stages can actually run side by side
+        double perBlock = perTask;
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            int block = PIPELINE_BLOCKS[0];
+            long elapsed = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                try (PipelinedCascade pipeline = new PipelinedCascade(block, PIPELINE_DEPTH,
+                        new FirstOrderSection(1.0, 0.0, 0.0), new FirstOrderSection(1.0, 0.0, 0.0))) {
+                    long start = System.nanoTime();
+                    pipeline.process(signal, 0, out, 0, signal.length);
+                    elapsed = Math.min(elapsed, System.nanoTime() - start);
+                }
+            }
+            perBlock = Math.max(0.0, (elapsed - signal.length * perSection) / (signal.length / block + 1));
+        }
+
+        sectionNanos = perSection;
+        dispatchNanos = perTask;
+        threadNanos = perThread;
+        handoffNanos = perBlock;
+        calibrated = true;
+    }
+
+    // Calibrate unless already done. Call it before fanning work out to the pool (BatchRunner does) so the
+    // measurements run on an idle pool, once, instead of inside whichever task plans first.
+    public static void ensureCalibrated() {
+        if (!calibrated) {
+            calibrateOnce();
+        }
+    }
+
+    // Threads that lost the race wait here and find the flag set
+    private static synchronized void calibrateOnce() {
+        if (calibrated) {
+            return;
+        }
+        try {
+            calibrate();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sectionNanos = 1.0;
+            dispatchNanos = 20_000.0;
+            threadNanos = 100_000.0;
+            handoffNanos = 20_000.0;
+            calibrated = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Planner calibration failed", e);
+        }
+    }
+
+    public static double getSectionNanos() {
+        ensureCalibrated();
+        return sectionNanos;
+    }
+
+    public static double getDispatchNanos() {
+        ensureCalibrated();
+        return dispatchNanos;
+    }
+
+    public static double getThreadNanos() {
+        ensureCalibrated();
+        return threadNanos;
+    }
+
+    public static double getHandoffNanos() {
+        ensureCalibrated();
+        return handoffNanos;
+    }
+
+    // Plan for a filter of the given number of second-order sections whose impulse response
+    // decays below rounding after horizon samples
+    public static ExecutionPlan plan(int length, int sections, int horizon) {
+        return plan(length, new int[]{sections}, horizon);
+    }
+
+    // Plan for a cascade whose stages have the given section counts; horizon is that of the whole cascade
+    public static ExecutionPlan plan(int length, int[] stageSections, int horizon) {
+        ensureCalibrated();
+        int sections = 0;
+        int slowest = 1;
+        for (int s : stageSections) {
+            sections += s;
+            slowest = Math.max(slowest, s);
+        }
+        sections = Math.max(1, sections);
+        double sequential = (double) length * sections * sectionNanos;
+        String forced = System.getProperty("dsp.plan", "auto");
+        int workers = DspRuntime.getParallelism();
+        if ("auto".equalsIgnoreCase(forced)) {
+            workers = Math.min(workers, Runtime.getRuntime().availableProcessors());
+        }
+
+        ExecutionPlan chunked = null;
+        int maxChunks = Math.min(workers, length / MIN_CHUNK);
+        int m = 2 * sections;
+        double matrixStep = (double) m * m * m * sectionNanos / 5; // one m x m multiply, ~5 multiply-adds per section sample
+        for (int k = 2; k <= maxChunks; k++) {
+            int chunk = (length + k - 1) / k;
+            double estimate = 2.0 * k * dispatchNanos
+                    + (double) Math.min(horizon, chunk) * sections * sectionNanos
+                    + matrixStep * (log2(horizon) + (k - 1) * log2(chunk))
+                    + (double) chunk * sections * sectionNanos;
+            if (chunked == null || estimate < chunked.getEstimatedNanos()) {
+                chunked = new ExecutionPlan(ExecutionPlan.Mode.CHUNK_PARALLEL, length, sections, k, chunk, sequential, estimate);
+            }
+        }
+
+        ExecutionPlan pipelined = null;
+        int stages = stageSections.length;
+        if (stages >= 2 && (stages <= workers || "pipeline".equalsIgnoreCase(forced))) {
+            for (int block : PIPELINE_BLOCKS) {
+                if (block > length) {
+                    break;
+                }
+                double blocks = Math.ceil((double) length / block);
+                double estimate = stages * threadNanos + (blocks + stages - 1) * (block * slowest * sectionNanos + handoffNanos);
+                if (pipelined == null || estimate < pipelined.getEstimatedNanos()) {
+                    pipelined = new ExecutionPlan(ExecutionPlan.Mode.PIPELINE, length, sections, stages, block, sequential, estimate);
+                }
+            }
+        }
+
+        ExecutionPlan best = new ExecutionPlan(ExecutionPlan.Mode.SEQUENTIAL, length, sections, 1, length, sequential, sequential);
+        if ("parallel".equalsIgnoreCase(forced)) {
+            best = chunked != null ? chunked : best;
+        } else if ("pipeline".equalsIgnoreCase(forced)) {
+            best = pipelined != null ? pipelined : best;
+        } else if ("auto".equalsIgnoreCase(forced)) {
+            for (ExecutionPlan candidate : new ExecutionPlan[]{chunked, pipelined}) {
+                if (candidate != null && candidate.getEstimatedNanos() < MARGIN * sequential
+                        && (best.getMode() == ExecutionPlan.Mode.SEQUENTIAL || candidate.getEstimatedNanos() < best.getEstimatedNanos())) {
+                    best = candidate;
+                }
+            }
+        }
+        lastPlan = best;
+        return best;
+    }
+
+    public static ExecutionPlan plan(LinearFilter filter, int length) {
+        return plan(length, new int[]{sectionsOf(filter)}, horizonOf(filter, length));
+    }
+
+    // Plan and run: filter in[inOff .. inOff + len) into out, continuing from the filter's state
+    public static ExecutionPlan execute(LinearFilter filter, double[] in, int inOff, double[] out, int outOff, int len)
+            throws InterruptedException, ExecutionException {
+        ExecutionPlan plan = plan(filter, len);
+        if (plan.getMode() == ExecutionPlan.Mode.SEQUENTIAL) {
+            filter.process(in, inOff, out, outOff, len);
+        } else {
+            ParallelRecurrence.process(filter, in, inOff, out, outOff, len, DspRuntime.pool(), plan.getChunks());
+        }
+        return plan;
+    }
+
+    // Plan and run a cascade of stages from zero state (the stages are templates and are not modified).
+    // Sequential and chunk-parallel plans run the stages fused into one; a pipeline runs each stage on its own worker.
+    public static ExecutionPlan execute(LinearFilter[] stages, double[] in, int inOff, double[] out, int outOff, int len)
+            throws InterruptedException, ExecutionException {
+        FusedCascade fused = FusedCascade.compile(stages);
+        int[] stageSections = new int[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            stageSections[i] = sectionsOf(stages[i]);
+        }
+        ExecutionPlan plan = plan(len, stageSections, horizonOf(fused, len));
+        if (plan.getMode() == ExecutionPlan.Mode.PIPELINE) {
+            BlockFilter[] fresh = new BlockFilter[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                fresh[i] = stages[i].copy();
+            }
+            try (PipelinedCascade pipeline = new PipelinedCascade(plan.getChunkSize(), PIPELINE_DEPTH, fresh)) {
+                pipeline.process(in, inOff, out, outOff, len);
+            }
+        } else if (plan.getMode() == ExecutionPlan.Mode.SEQUENTIAL) {
+            fused.process(in, inOff, out, outOff, len);
+        } else {
+            ParallelRecurrence.process(fused, in, inOff, out, outOff, len, DspRuntime.pool(), plan.getChunks());
+        }
+        return plan;
+    }
+
+    // The most recent plan made by any caller, for logging
+    public static ExecutionPlan getLastPlan() {
+        return lastPlan;
+    }
+
+    private static int sectionsOf(LinearFilter filter) {
+        return (filter.getStateSize() + 1) / 2;
+    }
+
+    private static int horizonOf(LinearFilter filter, int length) {
+        int m = filter.getStateSize();
+        return m == 0 ? 0 : ParallelRecurrence.decayHorizon(ParallelRecurrence.transitionMatrix(filter), m, length);
+    }
+
+    private static double log2(int n) {
+        return n <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+}
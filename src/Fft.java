@@ -0,0 +1,121 @@
+// Radix-2 FFT with precomputed twiddles and bit-reversal table. Real transforms of size n
+// run as a complex transform of size n / 2 plus one post-processing pass.
+// An instance keeps scratch buffers, so it must not be shared between threads.
+public class Fft {
+    private final int n;        // real transform size
+    private final int half;     // complex transform size
+    private final int[] reversed;
+    private final double[] cos; // twiddles for the half-size complex transform
+    private final double[] sin;
+    private final double[] splitCos; // e^{-2 pi i k / n} for the real/complex split
+    private final double[] splitSin;
+    private final double[] re;
+    private final double[] im;
+
+    public Fft(int n) {
+        if (n < 4 || Integer.bitCount(n) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two >= 4: " + n);
+        }
+        this.n = n;
+        this.half = n / 2;
+        int bits = Integer.numberOfTrailingZeros(half);
+        reversed = new int[half];
+        for (int i = 0; i < half; i++) {
+            reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+        cos = new double[half / 2];
+        sin = new double[half / 2];
+        for (int i = 0; i < half / 2; i++) {
+            cos[i] = Math.cos(2 * Math.PI * i / half);
+            sin[i] = -Math.sin(2 * Math.PI * i / half);
+        }
+        splitCos = new double[half + 1];
+        splitSin = new double[half + 1];
+        for (int k = 0; k <= half; k++) {
+            splitCos[k] = Math.cos(2 * Math.PI * k / n);
+            splitSin[k] = -Math.sin(2 * Math.PI * k / n);
+        }
+        re = new double[half];
+        im = new double[half];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // Spectrum bins 0 .. n/2 of a real signal (outRe/outIm need n/2 + 1 entries)
+    public void realForward(double[] signal, int off, double[] outRe, double[] outIm) {
+        for (int k = 0; k < half; k++) {
+            re[k] = signal[off + 2 * k];
+            im[k] = signal[off + 2 * k + 1];
+        }
+        complex(re, im, false);
+        for (int k = 0; k <= half; k++) {
+            int a = k == half ? 0 : k;
+            int b = k == 0 ? 0 : half - k;
+            // Even part E = (Z[k] + conj Z[n/2-k]) / 2, odd part O = (Z[k] - conj Z[n/2-k]) / 2i
+            double eRe = (re[a] + re[b]) * 0.5;
+            double eIm = (im[a] - im[b]) * 0.5;
+            double oRe = (im[a] + im[b]) * 0.5;
+            double oIm = -(re[a] - re[b]) * 0.5;
+            outRe[k] = eRe + splitCos[k] * oRe - splitSin[k] * oIm;
+            outIm[k] = eIm + splitCos[k] * oIm + splitSin[k] * oRe;
+        }
+    }
+
+    // Real signal from spectrum bins 0 .. n/2, including the 1/n scaling
+    public void realInverse(double[] inRe, double[] inIm, double[] signal, int off) {
+        for (int k = 0; k < half; k++) {
+            int b = half - k;
+            // E = (X[k] + conj X[n/2-k]) / 2, O = (X[k] - conj X[n/2-k]) / 2 * e^{+2 pi i k / n}
+            double eRe = (inRe[k] + inRe[b]) * 0.5;
+            double eIm = (inIm[k] - inIm[b]) * 0.5;
+            double dRe = (inRe[k] - inRe[b]) * 0.5;
+            double dIm = (inIm[k] + inIm[b]) * 0.5;
+            double oRe = dRe * splitCos[k] + dIm * splitSin[k];
+            double oIm = dIm * splitCos[k] - dRe * splitSin[k];
+            re[k] = eRe - oIm;
+            im[k] = eIm + oRe;
+        }
+        complex(re, im, true);
+        double scale = 1.0 / half;
+        for (int k = 0; k < half; k++) {
+            signal[off + 2 * k] = re[k] * scale;
+            signal[off + 2 * k + 1] = im[k] * scale;
+        }
+    }
+
+    // In-place iterative radix-2 transform of size n / 2 (unscaled)
+    private void complex(double[] re, double[] im, boolean inverse) {
+        for (int i = 0; i < half; i++) {
+            int j = reversed[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        double sign = inverse ? -1.0 : 1.0;
+        for (int size = 2; size <= half; size <<= 1) {
+            int span = size >> 1;
+            int stride = half / size;
+            for (int start = 0; start < half; start += size) {
+                for (int k = 0; k < span; k++) {
+                    double wr = cos[k * stride];
+                    double wi = sign * sin[k * stride];
+                    int a = start + k;
+                    int b = a + span;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+}
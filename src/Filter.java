@@ -1,26 +1,25 @@
+import java.util.concurrent.ExecutionException;
+
 public class Filter {
     private ButterworthFilter butterworthFilter;
     private ChebyshevFilter chebyshevFilter;
 
     // Default low-pass and high-pass filter methods (for use when no advanced filter is set)
     public double[] applyLowPassFilter(double[] signal, double cutoff) {
-        double[] filteredSignal = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            filteredSignal[i] = signal[i] * cutoff + (i > 0 ? filteredSignal[i - 1] * (1.0 - cutoff) : 0.0);
-        }
-        return filteredSignal;
+        return new LowPassFilter(cutoff).apply(signal);
     }
 
     public double[] applyHighPassFilter(double[] signal, double cutoff) {
-        double[] filteredSignal = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            filteredSignal[i] = signal[i] - signal[i - 1] * cutoff;
-        }
-        return filteredSignal;
+        return differenceFilter(cutoff).apply(signal);
     }
 
     public double[] applyBandPassFilter(double[] signal, double lowCutoff, double highCutoff) {
-        return applyHighPassFilter(applyLowPassFilter(signal, lowCutoff), highCutoff);
+        return new FilterChain(new LowPassFilter(lowCutoff), differenceFilter(highCutoff)).apply(signal);
+    }
+
+    // y[n] = x[n] - cutoff * x[n-1]
+    private static FirstOrderSection differenceFilter(double cutoff) {
+        return new FirstOrderSection(1.0, -cutoff, 0.0);
     }
 
     // Methods for advanced filters: Butterworth and Chebyshev
@@ -49,16 +48,25 @@ public class Filter {
         this.butterworthFilter = new ButterworthFilter(order, cutoffFrequency);
     }
 
+    // Cutoffs passed to the wrappers below are then in Hz
+    public void setButterworthFilter(int order, double cutoffFrequency, double sampleRate) {
+        this.butterworthFilter = new ButterworthFilter(order, cutoffFrequency, sampleRate);
+    }
+
     public void setChebyshevFilter(int order, double cutoffFrequency, double ripple) {
         this.chebyshevFilter = new ChebyshevFilter(order, cutoffFrequency, ripple);
     }
 
+    public void setChebyshevFilter(int order, double cutoffFrequency, double ripple, double sampleRate) {
+        this.chebyshevFilter = new ChebyshevFilter(order, cutoffFrequency, ripple, sampleRate);
+    }
+
     // Wrapper methods for low-pass, high-pass, and band-pass filters
     public double[] lowPassFilter(double[] signal, double cutoff) {
         if (butterworthFilter != null) {
-            return butterworthFilter(signal, cutoff, 1);  // Assuming order 1 for now
+            return butterworthFilter.apply(IirDesign.Type.LOW_PASS, cutoff, 0, signal);
         } else if (chebyshevFilter != null) {
-            return chebyshevFilter(signal, cutoff, 1);  // Assuming order 1 for now
+            return chebyshevFilter.apply(IirDesign.Type.LOW_PASS, cutoff, 0, signal);
         } else {
             return applyLowPassFilter(signal, cutoff);
         }
@@ -66,9 +74,9 @@ public class Filter {
 
     public double[] highPassFilter(double[] signal, double cutoff) {
         if (butterworthFilter != null) {
-            return butterworthFilter(signal, cutoff, 1);  // Apply Butterworth high-pass
+            return butterworthFilter.apply(IirDesign.Type.HIGH_PASS, cutoff, 0, signal);
         } else if (chebyshevFilter != null) {
-            return chebyshevFilter(signal, cutoff, 1);  // Apply Chebyshev high-pass
+            return chebyshevFilter.apply(IirDesign.Type.HIGH_PASS, cutoff, 0, signal);
         } else {
             return applyHighPassFilter(signal, cutoff);
         }
@@ -76,13 +84,67 @@ public class Filter {
 
     public double[] bandPassFilter(double[] signal, double lowCutoff, double highCutoff) {
         if (butterworthFilter != null) {
-            // Apply Butterworth band-pass filter
-            return butterworthFilter(signal, lowCutoff, 1);  // Assuming order 1
+            return butterworthFilter.apply(IirDesign.Type.BAND_PASS, lowCutoff, highCutoff, signal);
         } else if (chebyshevFilter != null) {
-            // Apply Chebyshev band-pass filter
-            return chebyshevFilter(signal, lowCutoff, 1);  // Assuming order 1
+            return chebyshevFilter.apply(IirDesign.Type.BAND_PASS, lowCutoff, highCutoff, signal);
         } else {
             return applyBandPassFilter(signal, lowCutoff, highCutoff);
         }
     }
+
+    // Stateful stages matching the wrappers above; each keeps its delay line between process() calls
+    public LinearFilter lowPassStage(double cutoff) {
+        if (butterworthFilter != null) {
+            return butterworthFilter.design(IirDesign.Type.LOW_PASS, cutoff, 0);
+        } else if (chebyshevFilter != null) {
+            return chebyshevFilter.design(IirDesign.Type.LOW_PASS, cutoff, 0);
+        } else {
+            return new LowPassFilter(cutoff);
+        }
+    }
+
+    public LinearFilter highPassStage(double cutoff) {
+        if (butterworthFilter != null) {
+            return butterworthFilter.design(IirDesign.Type.HIGH_PASS, cutoff, 0);
+        } else if (chebyshevFilter != null) {
+            return chebyshevFilter.design(IirDesign.Type.HIGH_PASS, cutoff, 0);
+        } else {
+            return differenceFilter(cutoff);
+        }
+    }
+
+    public LinearFilter bandPassStage(double lowCutoff, double highCutoff) {
+        if (butterworthFilter != null) {
+            return butterworthFilter.design(IirDesign.Type.BAND_PASS, lowCutoff, highCutoff);
+        } else if (chebyshevFilter != null) {
+            return chebyshevFilter.design(IirDesign.Type.BAND_PASS, lowCutoff, highCutoff);
+        } else {
+            return new FilterChain(new LowPassFilter(lowCutoff), differenceFilter(highCutoff));
+        }
+    }
+
+    // Zero-phase (forward-backward) versions of the wrappers above, split into sections on the shared pool
+    public double[] zeroPhaseLowPassFilter(double[] signal, double cutoff) throws InterruptedException, ExecutionException {
+        return zeroPhase(lowPassStage(cutoff), signal);
+    }
+
+    public double[] zeroPhaseHighPassFilter(double[] signal, double cutoff) throws InterruptedException, ExecutionException {
+        return zeroPhase(highPassStage(cutoff), signal);
+    }
+
+    public double[] zeroPhaseBandPassFilter(double[] signal, double lowCutoff, double highCutoff)
+            throws InterruptedException, ExecutionException {
+        return zeroPhase(bandPassStage(lowCutoff, highCutoff), signal);
+    }
+
+    private static double[] zeroPhase(LinearFilter stage, double[] signal) throws InterruptedException, ExecutionException {
+        return ZeroPhaseFilter.filtfilt(stage, signal, DspRuntime.pool(), DspRuntime.getParallelism());
+    }
+
+    // Linear-phase FIR high-pass for baseline-wander removal (e.g. 0.5 Hz for ECG), with a transition band
+    // as wide as the cutoff; long kernels like this one run through FFT convolution automatically
+    public FirKernel baselineWanderStage(double cutoffHz, double sampleRate) {
+        int taps = FirDesign.tapsForTransition(cutoffHz, sampleRate);
+        return FirFilter.create(FirDesign.highPass(taps, cutoffHz, sampleRate));
+    }
 }
@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+// Several named filter branches fed from one input. Each input sample is read once and pushed through
+// every branch in the same loop, producing one output array per branch.
+public class FilterBank {
+    private static final int SCRATCH = 4096;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<FusedCascade> branches = new ArrayList<>();
+    private double[] sos = new double[0];   // all branches' sections, back to back
+    private double[] state = new double[0];
+    private int[] bounds = {0};             // branch b owns sections bounds[b] .. bounds[b + 1)
+
+    // Add a branch made of linear stages (see FusedCascade.compile); it starts from zero state
+    public FilterBank addBranch(String name, BlockFilter... stages) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Duplicate branch name: " + name);
+        }
+        FusedCascade branch = FusedCascade.compile(stages);
+        double[] c = branch.getCoefficients();
+        int previous = sos.length / 5;
+        sos = Arrays.copyOf(sos, sos.length + c.length);
+        System.arraycopy(c, 0, sos, 5 * previous, c.length);
+        state = Arrays.copyOf(state, state.length + 2 * branch.getNumSections());
+        bounds = Arrays.copyOf(bounds, bounds.length + 1);
+        bounds[bounds.length - 1] = previous + branch.getNumSections();
+        names.add(name);
+        branches.add(branch);
+        return this;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public int getNumBranches() {
+        return names.size();
+    }
+
+    // Second-order sections over all branches (the work per input sample)
+    public int getNumSections() {
+        return sos.length / 5;
+    }
+
+    // Samples after which every branch's impulse response has decayed below rounding, capped at limit
+    public int decayHorizon(int limit) {
+        int horizon = 0;
+        for (FusedCascade branch : branches) {
+            double[] step = ParallelRecurrence.transitionMatrix(branch);
+            horizon = Math.max(horizon, ParallelRecurrence.decayHorizon(step, branch.getStateSize(), limit));
+        }
+        return horizon;
+    }
+
+    // Filter a whole signal, continuing from the current state
+    public Result process(double[] signal) {
+        double[][] outputs = new double[names.size()][signal.length];
+        process(signal, 0, outputs, 0, signal.length);
+        return new Result(names, outputs);
+    }
+
+    // Filter len samples into outputs[b][outOff ..] for every branch b
+    public void process(double[] in, int inOff, double[][] outputs, int outOff, int len) {
+        double[] c = sos;
+        double[] z = state;
+        int[] bound = bounds;
+        int branchCount = bound.length - 1;
+        for (int i = 0; i < len; i++) {
+            double input = in[inOff + i];
+            for (int b = 0; b < branchCount; b++) {
+                double x = input;
+                for (int s = bound[b]; s < bound[b + 1]; s++) {
+                    int k = 5 * s;
+                    int j = 2 * s;
+                    double y = c[k] * x + z[j];
+                    z[j] = c[k + 1] * x - c[k + 3] * y + z[j + 1];
+                    z[j + 1] = c[k + 2] * x - c[k + 4] * y;
+                    x = y;
+                }
+                outputs[b][outOff + i] = x;
+            }
+        }
+    }
+
+    // Time-block parallel version: every task runs all branches over its own span of the signal, and the
+    // branch states are stitched across span boundaries by ParallelRecurrence.scan
+    public Result processParallel(double[] signal, ExecutorService executor, int chunks) throws InterruptedException, ExecutionException {
+        double[][] outputs = new double[names.size()][signal.length];
+        ParallelRecurrence.scan(new Span(this, signal, outputs), signal.length, executor, chunks);
+        return new Result(names, outputs);
+    }
+
+    public void reset() {
+        Arrays.fill(state, 0.0);
+    }
+
+    // Same branches, fresh state
+    public FilterBank copy() {
+        FilterBank bank = new FilterBank();
+        bank.names.addAll(names);
+        bank.branches.addAll(branches);
+        bank.sos = sos;
+        bank.bounds = bounds;
+        bank.state = new double[state.length];
+        return bank;
+    }
+
+    // The whole bank as one recurrence: the state is every branch's state back to back, so the transition is
+    // block diagonal with one block per branch; phase 1 runs discard their outputs into scratch
+    private static final class Span implements ParallelRecurrence.Recurrence {
+        private final FilterBank bank;
+        private final double[] signal;
+        private final double[][] outputs;
+
+        Span(FilterBank bank, double[] signal, double[][] outputs) {
+            this.bank = bank;
+            this.signal = signal;
+            this.outputs = outputs;
+        }
+
+        @Override
+        public int getStateSize() {
+            return bank.state.length;
+        }
+
+        @Override
+        public double[] transitionMatrix() {
+            int m = bank.state.length;
+            double[] a = new double[m * m];
+            for (int b = 0; b < bank.branches.size(); b++) {
+                FusedCascade branch = bank.branches.get(b);
+                double[] step = ParallelRecurrence.transitionMatrix(branch);
+                int size = branch.getStateSize();
+                int off = 2 * bank.bounds[b];
+                for (int i = 0; i < size; i++) {
+                    System.arraycopy(step, i * size, a, (off + i) * m + off, size);
+                }
+            }
+            return a;
+        }
+
+        @Override
+        public void getState(double[] dst) {
+            System.arraycopy(bank.state, 0, dst, 0, bank.state.length);
+        }
+
+        @Override
+        public void setState(double[] src) {
+            System.arraycopy(src, 0, bank.state, 0, bank.state.length);
+        }
+
+        @Override
+        public void run(int from, int to, boolean keep) {
+            if (keep) {
+                bank.process(signal, from, outputs, from, to - from);
+                return;
+            }
+            double[][] scratch = new double[outputs.length][Math.min(SCRATCH, to - from)];
+            for (int i = from; i < to; i += scratch[0].length) {
+                bank.process(signal, i, scratch, 0, Math.min(scratch[0].length, to - i));
+            }
+        }
+
+        @Override
+        public ParallelRecurrence.Recurrence fresh() {
+            return new Span(bank.copy(), signal, outputs);
+        }
+    }
+
+    // One output array per branch, addressed by name or position
+    public static class Result {
+        private final List<String> names;
+        private final double[][] outputs;
+
+        public Result(List<String> names, double[][] outputs) {
+            this.names = new ArrayList<>(names);
+            this.outputs = outputs;
+        }
+
+        public double[] get(String name) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("No branch named " + name + " in " + names);
+            }
+            return outputs[index];
+        }
+
+        public double[] get(int index) {
+            return outputs[index];
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public int size() {
+            return outputs.length;
+        }
+    }
+}
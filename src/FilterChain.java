@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Stages applied one after another; the first writes into out and the rest run in place there.
+// The chain's state is the concatenation of its stages' states when every stage is a LinearFilter.
+public class FilterChain implements LinearFilter {
+    private final BlockFilter[] stages;
+
+    public FilterChain(BlockFilter... stages) {
+        this.stages = stages.clone();
+    }
+
+    public FilterChain(List<BlockFilter> stages) {
+        this.stages = stages.toArray(new BlockFilter[0]);
+    }
+
+    public List<BlockFilter> getStages() {
+        return Arrays.asList(stages);
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        if (stages.length == 0) {
+            if (in != out || inOff != outOff) {
+                System.arraycopy(in, inOff, out, outOff, len);
+            }
+            return;
+        }
+        stages[0].process(in, inOff, out, outOff, len);
+        for (int s = 1; s < stages.length; s++) {
+            stages[s].process(out, outOff, out, outOff, len);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (BlockFilter stage : stages) {
+            stage.reset();
+        }
+    }
+
+    public boolean isLinear() {
+        for (BlockFilter stage : stages) {
+            if (!(stage instanceof LinearFilter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getStateSize() {
+        int size = 0;
+        for (BlockFilter stage : stages) {
+            size += linear(stage).getStateSize();
+        }
+        return size;
+    }
+
+    @Override
+    public void getState(double[] dst, int off) {
+        for (BlockFilter stage : stages) {
+            LinearFilter l = linear(stage);
+            l.getState(dst, off);
+            off += l.getStateSize();
+        }
+    }
+
+    @Override
+    public void setState(double[] src, int off) {
+        for (BlockFilter stage : stages) {
+            LinearFilter l = linear(stage);
+            l.setState(src, off);
+            off += l.getStateSize();
+        }
+    }
+
+    private static LinearFilter linear(BlockFilter stage) {
+        if (!(stage instanceof LinearFilter)) {
+            throw new UnsupportedOperationException("Stage does not expose linear state: " + stage.getClass().getSimpleName());
+        }
+        return (LinearFilter) stage;
+    }
+
+    @Override
+    public FilterChain copy() {
+        List<BlockFilter> copies = new ArrayList<>(stages.length);
+        for (BlockFilter stage : stages) {
+            copies.add(stage.copy());
+        }
+        return new FilterChain(copies);
+    }
+}
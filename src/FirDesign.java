@@ -0,0 +1,77 @@
+// Linear-phase FIR designs by the windowed-sinc method (Hamming window).
+// Frequencies are in the same units as sampleRate. Odd tap counts give a whole-sample delay of (taps - 1) / 2.
+public final class FirDesign {
+    private FirDesign() {
+    }
+
+    public static double[] lowPass(int numTaps, double cutoff, double sampleRate) {
+        checkCutoff(cutoff, sampleRate);
+        double[] h = windowedSinc(numTaps, cutoff / sampleRate);
+        double sum = 0;
+        for (double v : h) {
+            sum += v;
+        }
+        for (int i = 0; i < h.length; i++) {
+            h[i] /= sum; // unity gain at DC
+        }
+        return h;
+    }
+
+    // Spectral inversion of the low-pass; needs an odd number of taps
+    public static double[] highPass(int numTaps, double cutoff, double sampleRate) {
+        checkOdd(numTaps);
+        double[] h = lowPass(numTaps, cutoff, sampleRate);
+        for (int i = 0; i < h.length; i++) {
+            h[i] = -h[i];
+        }
+        h[numTaps / 2] += 1.0;
+        return h;
+    }
+
+    // Difference of two low-passes; needs an odd number of taps
+    public static double[] bandPass(int numTaps, double lowCutoff, double highCutoff, double sampleRate) {
+        checkOdd(numTaps);
+        if (lowCutoff >= highCutoff) {
+            throw new IllegalArgumentException("Band-pass needs lowCutoff < highCutoff");
+        }
+        double[] upper = lowPass(numTaps, highCutoff, sampleRate);
+        double[] lower = lowPass(numTaps, lowCutoff, sampleRate);
+        for (int i = 0; i < numTaps; i++) {
+            upper[i] -= lower[i];
+        }
+        return upper;
+    }
+
+    // Odd tap count giving a Hamming transition band about transitionWidth wide
+    public static int tapsForTransition(double transitionWidth, double sampleRate) {
+        int n = (int) Math.ceil(3.3 * sampleRate / transitionWidth);
+        return n | 1;
+    }
+
+    private static double[] windowedSinc(int numTaps, double normalizedCutoff) {
+        if (numTaps < 1) {
+            throw new IllegalArgumentException("FIR filter needs at least one tap");
+        }
+        double[] h = new double[numTaps];
+        double center = (numTaps - 1) / 2.0;
+        for (int i = 0; i < numTaps; i++) {
+            double t = i - center;
+            double sinc = t == 0 ? 2 * normalizedCutoff : Math.sin(2 * Math.PI * normalizedCutoff * t) / (Math.PI * t);
+            double window = numTaps == 1 ? 1.0 : 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (numTaps - 1));
+            h[i] = sinc * window;
+        }
+        return h;
+    }
+
+    private static void checkCutoff(double cutoff, double sampleRate) {
+        if (cutoff <= 0 || cutoff >= sampleRate / 2) {
+            throw new IllegalArgumentException("Cutoff must lie between 0 and " + sampleRate / 2 + ", got " + cutoff);
+        }
+    }
+
+    private static void checkOdd(int numTaps) {
+        if (numTaps % 2 == 0) {
+            throw new IllegalArgumentException("Need an odd number of taps, got " + numTaps);
+        }
+    }
+}
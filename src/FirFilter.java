@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Direct-form FIR filter: y[n] = sum h[k] x[n - k]. Cheapest for short kernels;
+// create() switches to FFT overlap-save convolution once the kernel gets long.
+public class FirFilter implements FirKernel {
+    static final int DIRECT_MAX_TAPS = 64; // above this the FFT convolver is faster per sample
+    private static final int BLOCK = 1024;
+    private static final int MIN_CHUNK = 8192;
+
+    private final double[] taps;
+    private final double[] reversed; // taps back to front, so each output is a forward dot product
+    private final double[] line;     // last taps - 1 inputs followed by the current block
+
+    public FirFilter(double[] taps) {
+        if (taps.length == 0) {
+            throw new IllegalArgumentException("FIR filter needs at least one tap");
+        }
+        this.taps = taps;
+        this.reversed = new double[taps.length];
+        for (int k = 0; k < taps.length; k++) {
+            reversed[k] = taps[taps.length - 1 - k];
+        }
+        this.line = new double[taps.length - 1 + BLOCK];
+    }
+
+    // Direct form for short kernels, overlap-save FFT convolution for long ones
+    public static FirKernel create(double[] taps) {
+        if (taps.length <= DIRECT_MAX_TAPS) {
+            return new FirFilter(taps);
+        }
+        return new OverlapSaveConvolver(taps);
+    }
+
+    @Override
+    public int getNumTaps() {
+        return taps.length;
+    }
+
+    @Override
+    public double[] getTaps() {
+        return taps;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        int history = taps.length - 1;
+        int m = taps.length;
+        SignalMath math = SignalMath.get();
+        for (int start = 0; start < len; start += BLOCK) {
+            int n = Math.min(BLOCK, len - start);
+            System.arraycopy(in, inOff + start, line, history, n);
+            for (int i = 0; i < n; i++) {
+                out[outOff + start + i] = math.dot(reversed, 0, line, i, m);
+            }
+            System.arraycopy(line, n, line, 0, history);
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(line, 0.0);
+    }
+
+    @Override
+    public FirFilter copy() {
+        return new FirFilter(taps);
+    }
+
+    // Offline filtering in parallel blocks. Each block only needs the taps - 1 inputs before it,
+    // so a copy of the filter is primed with those and the block is filtered independently;
+    // the result equals one sequential process() call, and the filter's state is advanced to match.
+    public static double[] applyParallel(FirKernel filter, double[] signal, ExecutorService executor, int chunks)
+            throws InterruptedException, ExecutionException {
+        int len = signal.length;
+        int history = filter.getNumTaps() - 1;
+        double[] output = new double[len];
+        chunks = Math.min(chunks, len / Math.max(MIN_CHUNK, 2 * history));
+        if (chunks <= 1) {
+            filter.process(signal, 0, output, 0, len);
+            return output;
+        }
+
+        int[] start = new int[chunks + 1];
+        for (int k = 0; k <= chunks; k++) {
+            start[k] = (int) ((long) k * len / chunks);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k = 0; k < chunks; k++) {
+            int index = k;
+            tasks.add(() -> {
+                FirKernel f = index == 0 ? filter : filter.copy();
+                if (index > 0) {
+                    f.process(signal, start[index] - history, new double[history], 0, history);
+                }
+                f.process(signal, start[index], output, start[index], start[index + 1] - start[index]);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        // Carry the delay line forward as if the whole signal had gone through this filter
+        filter.reset();
+        filter.process(signal, len - history, new double[history], 0, history);
+        return output;
+    }
+}
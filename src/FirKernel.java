@@ -0,0 +1,10 @@
+// A finite impulse response filter: its state is just the last getNumTaps() - 1 inputs,
+// so any block can be filtered independently once it has seen the inputs before it.
+public interface FirKernel extends BlockFilter {
+    int getNumTaps();
+
+    double[] getTaps();
+
+    @Override
+    FirKernel copy();
+}
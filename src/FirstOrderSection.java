@@ -0,0 +1,69 @@
+// y[n] = b0 * x[n] + b1 * x[n-1] - a1 * y[n-1]
+public class FirstOrderSection implements LinearFilter {
+    private final double b0;
+    private final double b1;
+    private final double a1;
+    private double previousInput;
+    private double previousOutput;
+
+    public FirstOrderSection(double b0, double b1, double a1) {
+        this.b0 = b0;
+        this.b1 = b1;
+        this.a1 = a1;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        double x1 = previousInput;
+        double y1 = previousOutput;
+        for (int i = 0; i < len; i++) {
+            double x = in[inOff + i];
+            double y = b0 * x + b1 * x1 - a1 * y1;
+            out[outOff + i] = y;
+            x1 = x;
+            y1 = y;
+        }
+        previousInput = x1;
+        previousOutput = y1;
+    }
+
+    @Override
+    public void reset() {
+        previousInput = 0.0;
+        previousOutput = 0.0;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 2;
+    }
+
+    @Override
+    public void getState(double[] dst, int off) {
+        dst[off] = previousInput;
+        dst[off + 1] = previousOutput;
+    }
+
+    @Override
+    public void setState(double[] src, int off) {
+        previousInput = src[off];
+        previousOutput = src[off + 1];
+    }
+
+    @Override
+    public FirstOrderSection copy() {
+        return new FirstOrderSection(b0, b1, a1);
+    }
+
+    public double getB0() {
+        return b0;
+    }
+
+    public double getB1() {
+        return b1;
+    }
+
+    public double getA1() {
+        return a1;
+    }
+}
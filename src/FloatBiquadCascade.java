@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+// Single-precision BiquadCascade: float coefficients, state and samples, transposed direct form II,
+// processed in L1-sized tiles through every section.
+public class FloatBiquadCascade implements FloatBlockFilter {
+    private static final int TILE = 256;
+    private static final double SENSITIVE_POLE_RADIUS = 0.995; // closer to the unit circle than this: keep in double
+
+    private final float[] sos;   // {b0, b1, b2, a1, a2} per section
+    private final float[] state; // {s1, s2} per section
+    private final int sections;
+
+    public FloatBiquadCascade(double[] sos) {
+        if (sos.length % 5 != 0) {
+            throw new IllegalArgumentException("Second-order sections need 5 coefficients each, got " + sos.length);
+        }
+        this.sos = new float[sos.length];
+        for (int i = 0; i < sos.length; i++) {
+            this.sos[i] = (float) sos[i];
+        }
+        this.sections = sos.length / 5;
+        this.state = new float[2 * sections];
+    }
+
+    private FloatBiquadCascade(float[] sos) {
+        this.sos = sos;
+        this.sections = sos.length / 5;
+        this.state = new float[2 * sections];
+    }
+
+    // Whether any section has a pole radius (sqrt(a2), or |a1| for a first-order section) near 1
+    public static boolean isSensitive(double[] sos) {
+        for (int k = 0; k < sos.length; k += 5) {
+            double a1 = sos[k + 3];
+            double a2 = sos[k + 4];
+            double radius = a2 == 0 ? Math.abs(a1) : Math.sqrt(Math.abs(a2));
+            if (radius > SENSITIVE_POLE_RADIUS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getNumSections() {
+        return sections;
+    }
+
+    @Override
+    public void process(float[] in, int inOff, float[] out, int outOff, int len) {
+        if (sections == 0) {
+            if (in != out || inOff != outOff) {
+                System.arraycopy(in, inOff, out, outOff, len);
+            }
+            return;
+        }
+        for (int start = 0; start < len; start += TILE) {
+            int n = Math.min(TILE, len - start);
+            float[] src = in;
+            int srcOff = inOff + start;
+            int dstOff = outOff + start;
+            for (int s = 0; s < sections; s++) {
+                int c = 5 * s;
+                float b0 = sos[c], b1 = sos[c + 1], b2 = sos[c + 2], a1 = sos[c + 3], a2 = sos[c + 4];
+                float s1 = state[2 * s], s2 = state[2 * s + 1];
+                for (int i = 0; i < n; i++) {
+                    float x = src[srcOff + i];
+                    float y = b0 * x + s1;
+                    s1 = b1 * x - a1 * y + s2;
+                    s2 = b2 * x - a2 * y;
+                    out[dstOff + i] = y;
+                }
+                state[2 * s] = s1;
+                state[2 * s + 1] = s2;
+                src = out;
+                srcOff = dstOff;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0.0f);
+    }
+
+    @Override
+    public FloatBiquadCascade copy() {
+        return new FloatBiquadCascade(sos);
+    }
+}
@@ -0,0 +1,51 @@
+// Single-precision counterpart of BlockFilter: same block contract (state carries over between calls,
+// in and out may be the same region), on float[] signals.
+public interface FloatBlockFilter {
+    // Arithmetic for one stage. SINGLE halves memory traffic; DOUBLE keeps the stage in double precision
+    // (converting each block in and out), for IIR sections whose poles sit close to the unit circle, where
+    // float rounding of the recursion becomes audible or unstable. AUTO picks DOUBLE only for those.
+    enum Precision { SINGLE, DOUBLE, AUTO }
+
+    void process(float[] in, int inOff, float[] out, int outOff, int len);
+
+    void reset();
+
+    // Same configuration, fresh state
+    FloatBlockFilter copy();
+
+    // Filter a whole signal into a new array, continuing from the current state
+    default float[] apply(float[] signal) {
+        float[] output = new float[signal.length];
+        process(signal, 0, output, 0, signal.length);
+        return output;
+    }
+
+    // A double-precision stage (biquads, fused cascades, first-order sections, chains of them, FIR kernels)
+    // at the requested precision; stages with no float kernel always run in double. FIR kernels longer than
+    // FirFilter.DIRECT_MAX_TAPS keep their FFT convolver (in double): the float kernel is direct-form only.
+    // Every path starts from fresh state and never touches the given stage, like copy().
+    static FloatBlockFilter of(BlockFilter stage, Precision precision) {
+        if (precision == Precision.DOUBLE) {
+            return new DoublePrecisionStage(stage.copy());
+        }
+        if (stage instanceof FirKernel) {
+            double[] taps = ((FirKernel) stage).getTaps();
+            if (taps.length > FirFilter.DIRECT_MAX_TAPS) {
+                OverlapSaveConvolver convolver = stage instanceof OverlapSaveConvolver
+                        ? ((OverlapSaveConvolver) stage).copy() : new OverlapSaveConvolver(taps);
+                return new DoublePrecisionStage(convolver, convolver.getStep()); // one FFT frame per block
+            }
+            return new FloatFirFilter(taps);
+        }
+        double[] sos;
+        try {
+            sos = FusedCascade.compile(stage).getCoefficients();
+        } catch (IllegalArgumentException e) {
+            return new DoublePrecisionStage(stage.copy());
+        }
+        if (precision == Precision.AUTO && FloatBiquadCascade.isSensitive(sos)) {
+            return new DoublePrecisionStage(stage.copy());
+        }
+        return new FloatBiquadCascade(sos);
+    }
+}
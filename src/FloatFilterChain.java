@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Float pipeline of stages, each at its own precision: e.g. a long FIR in single precision followed by a
+// narrow-band high-order IIR kept in double. Blocks pass through all stages in place.
+public class FloatFilterChain implements FloatBlockFilter {
+    private final List<FloatBlockFilter> stages = new ArrayList<>();
+
+    public FloatFilterChain() {
+    }
+
+    public FloatFilterChain(List<FloatBlockFilter> stages) {
+        this.stages.addAll(stages);
+    }
+
+    public FloatFilterChain add(FloatBlockFilter stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    public FloatFilterChain add(BlockFilter stage, Precision precision) {
+        return add(FloatBlockFilter.of(stage, precision));
+    }
+
+    public List<FloatBlockFilter> getStages() {
+        return stages;
+    }
+
+    @Override
+    public void process(float[] in, int inOff, float[] out, int outOff, int len) {
+        if (stages.isEmpty()) {
+            if (in != out || inOff != outOff) {
+                System.arraycopy(in, inOff, out, outOff, len);
+            }
+            return;
+        }
+        stages.get(0).process(in, inOff, out, outOff, len);
+        for (int s = 1; s < stages.size(); s++) {
+            stages.get(s).process(out, outOff, out, outOff, len);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (FloatBlockFilter stage : stages) {
+            stage.reset();
+        }
+    }
+
+    @Override
+    public FloatFilterChain copy() {
+        List<FloatBlockFilter> copies = new ArrayList<>();
+        for (FloatBlockFilter stage : stages) {
+            copies.add(stage.copy());
+        }
+        return new FloatFilterChain(copies);
+    }
+}
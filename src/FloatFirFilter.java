@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+// Single-precision direct-form FIR filter; twice as many taps fit in a vector register as with doubles
+public class FloatFirFilter implements FloatBlockFilter {
+    private static final int BLOCK = 1024;
+    private static final int LANES = 16; // taps padded to a multiple of this, so dot products have no scalar tail
+
+    private final float[] reversed; // taps back to front, so each output is a forward dot product
+    private final float[] line;     // last taps - 1 inputs followed by the current block
+
+    public FloatFirFilter(double[] taps) {
+        if (taps.length == 0) {
+            throw new IllegalArgumentException("FIR filter needs at least one tap");
+        }
+        // Leading zeros in the reversed kernel are extra zero taps on the oldest inputs
+        this.reversed = new float[(taps.length + LANES - 1) / LANES * LANES];
+        int pad = reversed.length - taps.length;
+        for (int k = 0; k < taps.length; k++) {
+            reversed[pad + k] = (float) taps[taps.length - 1 - k];
+        }
+        this.line = new float[reversed.length - 1 + BLOCK];
+    }
+
+    private FloatFirFilter(float[] reversed) {
+        this.reversed = reversed;
+        this.line = new float[reversed.length - 1 + BLOCK];
+    }
+
+    // Including the zero padding
+    public int getNumTaps() {
+        return reversed.length;
+    }
+
+    @Override
+    public void process(float[] in, int inOff, float[] out, int outOff, int len) {
+        int history = reversed.length - 1;
+        int m = reversed.length;
+        SignalMath math = SignalMath.get();
+        for (int start = 0; start < len; start += BLOCK) {
+            int n = Math.min(BLOCK, len - start);
+            System.arraycopy(in, inOff + start, line, history, n);
+            for (int i = 0; i < n; i++) {
+                out[outOff + start + i] = math.dot(reversed, 0, line, i, m);
+            }
+            System.arraycopy(line, n, line, 0, history);
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(line, 0.0f);
+    }
+
+    @Override
+    public FloatFirFilter copy() {
+        return new FloatFirFilter(reversed);
+    }
+}
@@ -0,0 +1,61 @@
+// Single-precision multi-channel signal: half the memory and memory bandwidth of double[] channels,
+// and still exact for 12-bit ECG and 16-bit PCM samples (24-bit mantissa).
+public class FloatSignal {
+    private final float[][] channels;
+    private final double sampleRate;
+
+    public FloatSignal(float[][] channels, double sampleRate) {
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+    }
+
+    // Narrowed copy of double-precision channels
+    public static FloatSignal of(double[][] channels, double sampleRate) {
+        float[][] narrowed = new float[channels.length][];
+        for (int c = 0; c < channels.length; c++) {
+            narrowed[c] = toFloat(channels[c]);
+        }
+        return new FloatSignal(narrowed, sampleRate);
+    }
+
+    public static float[] toFloat(double[] signal) {
+        float[] result = new float[signal.length];
+        for (int i = 0; i < signal.length; i++) {
+            result[i] = (float) signal[i];
+        }
+        return result;
+    }
+
+    public static double[] toDouble(float[] signal) {
+        double[] result = new double[signal.length];
+        for (int i = 0; i < signal.length; i++) {
+            result[i] = signal[i];
+        }
+        return result;
+    }
+
+    public float[][] getChannels() {
+        return channels;
+    }
+
+    public float[] getChannel(int index) {
+        return channels[index];
+    }
+
+    public int getNumChannels() {
+        return channels.length;
+    }
+
+    public int getNumSamples() {
+        return channels.length == 0 ? 0 : channels[0].length;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    // Bytes held by the sample arrays
+    public long getSizeInBytes() {
+        return (long) Float.BYTES * channels.length * getNumSamples();
+    }
+}
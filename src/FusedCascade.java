@@ -0,0 +1,104 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An ordered list of linear stages compiled into one flat list of second-order sections,
+// evaluated in a single loop: each sample passes through every section before the next is read,
+// so intermediate results never leave registers and the signal is traversed once.
+public class FusedCascade implements LinearFilter {
+    private final double[] sos;   // {b0, b1, b2, a1, a2} per section
+    private final double[] state; // {s1, s2} per section, transposed direct form II
+    private final int sections;
+
+    private FusedCascade(double[] sos) {
+        this.sos = sos;
+        this.sections = sos.length / 5;
+        this.state = new double[2 * sections];
+    }
+
+    // Flatten FirstOrderSections, BiquadCascades and FilterChains of them; the result starts from zero state
+    public static FusedCascade compile(BlockFilter... stages) {
+        List<double[]> sections = new ArrayList<>();
+        for (BlockFilter stage : stages) {
+            collect(stage, sections);
+        }
+        double[] sos = new double[5 * sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            System.arraycopy(sections.get(i), 0, sos, 5 * i, 5);
+        }
+        return new FusedCascade(sos);
+    }
+
+    private static void collect(BlockFilter stage, List<double[]> sections) {
+        if (stage instanceof FusedCascade) {
+            double[] c = ((FusedCascade) stage).sos;
+            for (int i = 0; i < c.length; i += 5) {
+                sections.add(Arrays.copyOfRange(c, i, i + 5));
+            }
+        } else if (stage instanceof BiquadCascade) {
+            double[] c = ((BiquadCascade) stage).getCoefficients();
+            for (int i = 0; i < c.length; i += 5) {
+                sections.add(Arrays.copyOfRange(c, i, i + 5));
+            }
+        } else if (stage instanceof FirstOrderSection) {
+            FirstOrderSection f = (FirstOrderSection) stage;
+            sections.add(new double[]{f.getB0(), f.getB1(), 0.0, f.getA1(), 0.0});
+        } else if (stage instanceof FilterChain) {
+            for (BlockFilter inner : ((FilterChain) stage).getStages()) {
+                collect(inner, sections);
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot fuse stage: " + stage.getClass().getSimpleName());
+        }
+    }
+
+    public int getNumSections() {
+        return sections;
+    }
+
+    public double[] getCoefficients() {
+        return sos;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        double[] c = sos;
+        double[] z = state;
+        int n = sections;
+        for (int i = 0; i < len; i++) {
+            double x = in[inOff + i];
+            for (int s = 0, k = 0, j = 0; s < n; s++, k += 5, j += 2) {
+                double y = c[k] * x + z[j];
+                z[j] = c[k + 1] * x - c[k + 3] * y + z[j + 1];
+                z[j + 1] = c[k + 2] * x - c[k + 4] * y;
+                x = y;
+            }
+            out[outOff + i] = x;
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0.0);
+    }
+
+    @Override
+    public int getStateSize() {
+        return state.length;
+    }
+
+    @Override
+    public void getState(double[] dst, int off) {
+        System.arraycopy(state, 0, dst, off, state.length);
+    }
+
+    @Override
+    public void setState(double[] src, int off) {
+        System.arraycopy(src, off, state, 0, state.length);
+    }
+
+    @Override
+    public FusedCascade copy() {
+        return new FusedCascade(sos);
+    }
+}
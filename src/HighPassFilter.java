@@ -1,10 +1,6 @@
-public class HighPassFilter {
-    public double[] applyFilter(double[] signal, double cutoff) {
-        // Simple high-pass filter implementation
-        double[] output = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            output[i] = signal[i] - signal[i - 1] + (cutoff * (output[i - 1]));
-        }
-        return output;
+public class HighPassFilter extends FirstOrderSection {
+    // Simple high-pass filter: y[n] = x[n] - x[n-1] + cutoff * y[n-1]
+    public HighPassFilter(double cutoff) {
+        super(1.0, -1.0, -cutoff);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Butterworth and Chebyshev type I design via analog prototype + bilinear transform.
+// Designs come back as second-order sections {b0, b1, b2, a1, a2} (a0 = 1) and are memoized,
+// so repeated calls with the same parameters cost a map lookup.
+public final class IirDesign {
+    public enum Type { LOW_PASS, HIGH_PASS, BAND_PASS }
+
+    private static final Map<String, double[]> DESIGNS = new ConcurrentHashMap<>();
+
+    private IirDesign() {
+    }
+
+    // f2 is only used for BAND_PASS; frequencies share units with sampleRate
+    public static double[] butterworth(Type type, int order, double f1, double f2, double sampleRate) {
+        String key = "B" + type + "/" + order + "/" + f1 + "/" + f2 + "/" + sampleRate;
+        return DESIGNS.computeIfAbsent(key, k -> design(type, order, 0.0, f1, f2, sampleRate));
+    }
+
+    public static double[] chebyshev1(Type type, int order, double rippleDb, double f1, double f2, double sampleRate) {
+        if (!(rippleDb > 0)) {
+            throw new IllegalArgumentException("Chebyshev ripple must be positive: " + rippleDb);
+        }
+        String key = "C" + type + "/" + order + "/" + rippleDb + "/" + f1 + "/" + f2 + "/" + sampleRate;
+        return DESIGNS.computeIfAbsent(key, k -> design(type, order, rippleDb, f1, f2, sampleRate));
+    }
+
+    // rippleDb == 0 selects Butterworth
+    private static double[] design(Type type, int order, double rippleDb, double f1, double f2, double sampleRate) {
+        double nyquist = sampleRate / 2;
+        if (order < 1) {
+            throw new IllegalArgumentException("Filter order must be at least 1: " + order);
+        }
+        if (!(f1 > 0 && f1 < nyquist) || (type == Type.BAND_PASS && !(f2 > f1 && f2 < nyquist))) {
+            throw new IllegalArgumentException("Cutoff outside (0, " + nyquist + "): " + f1 + (type == Type.BAND_PASS ? ", " + f2 : ""));
+        }
+
+        // Analog prototype (cutoff 1 rad/s)
+        double sinhMu = 1, coshMu = 1, passGain = 1;
+        if (rippleDb > 0) {
+            double eps = Math.sqrt(Math.pow(10, rippleDb / 10) - 1);
+            double mu = asinh(1 / eps) / order;
+            sinhMu = Math.sinh(mu);
+            coshMu = Math.cosh(mu);
+            if (order % 2 == 0) {
+                passGain = 1 / Math.sqrt(1 + eps * eps); // even orders start the passband at a ripple trough
+            }
+        }
+
+        // Pre-warped analog edges for the bilinear transform
+        double fs2 = 2 * sampleRate;
+        double w1 = fs2 * Math.tan(Math.PI * f1 / sampleRate);
+        double w2 = type == Type.BAND_PASS ? fs2 * Math.tan(Math.PI * f2 / sampleRate) : 0;
+        double w0 = Math.sqrt(w1 * w2);
+        double bw = w2 - w1;
+
+        int sectionCount = type == Type.BAND_PASS ? order : (order + 1) / 2;
+        double[] sos = new double[5 * sectionCount];
+        int s = 0;
+        // Prototype poles in the upper half plane; each one (with its conjugate) yields one or two sections
+        for (int k = 0; k < (order + 1) / 2; k++) {
+            double theta = Math.PI * (2 * k + 1) / (2 * order);
+            Complex p = new Complex(-sinhMu * Math.sin(theta), coshMu * Math.cos(theta));
+            boolean real = 2 * k + 1 == order;
+            if (real) {
+                p = new Complex(p.re, 0);
+            }
+
+            if (type == Type.BAND_PASS) {
+                // s -> (s^2 + w0^2) / (s * bw): every prototype pole splits into two
+                Complex half = p.scale(bw / 2);
+                Complex root = half.mul(half).sub(new Complex(w0 * w0, 0)).sqrt();
+                Complex q1 = bilinear(half.add(root), fs2);
+                Complex q2 = bilinear(half.sub(root), fs2);
+                if (real) {
+                    s = putSection(sos, s, q1, q2, 1, 0, -1);
+                } else {
+                    s = putSection(sos, s, q1, q1.conj(), 1, 0, -1);
+                    s = putSection(sos, s, q2, q2.conj(), 1, 0, -1);
+                }
+            } else {
+                Complex analog = type == Type.LOW_PASS ? p.scale(w1) : new Complex(w1, 0).div(p);
+                Complex q = bilinear(analog, fs2);
+                double zero = type == Type.LOW_PASS ? 1 : -1; // zeros at z = -1 (low-pass) or z = +1 (high-pass)
+                if (real) {
+                    s = putSection(sos, s, q, null, 1, zero, 0);
+                } else {
+                    s = putSection(sos, s, q, q.conj(), 1, 2 * zero, 1);
+                }
+            }
+        }
+
+        // Unity gain per section at the passband reference, then the prototype's passband level on the first
+        double reference;
+        switch (type) {
+            case LOW_PASS:
+                reference = 0;
+                break;
+            case HIGH_PASS:
+                reference = Math.PI;
+                break;
+            default:
+                reference = 2 * Math.atan(w0 / fs2);
+        }
+        for (int i = 0; i < sectionCount; i++) {
+            double g = 1 / sectionMagnitude(sos, i, reference);
+            sos[5 * i] *= g;
+            sos[5 * i + 1] *= g;
+            sos[5 * i + 2] *= g;
+        }
+        sos[0] *= passGain;
+        sos[1] *= passGain;
+        sos[2] *= passGain;
+        return sos;
+    }
+
+    // Write a section with monic numerator [1, n1, n2] and poles q1 (and q2 when non-null)
+    private static int putSection(double[] sos, int s, Complex q1, Complex q2, double n0, double n1, double n2) {
+        int c = 5 * s;
+        sos[c] = n0;
+        sos[c + 1] = n1;
+        sos[c + 2] = n2;
+        if (q2 == null) {
+            sos[c + 3] = -q1.re;
+            sos[c + 4] = 0;
+        } else {
+            sos[c + 3] = -(q1.re + q2.re);
+            sos[c + 4] = q1.mul(q2).re;
+        }
+        return s + 1;
+    }
+
+    private static Complex bilinear(Complex p, double fs2) {
+        return new Complex(fs2 + p.re, p.im).div(new Complex(fs2 - p.re, -p.im));
+    }
+
+    // |H(e^jw)| of one section
+    static double sectionMagnitude(double[] sos, int section, double w) {
+        int c = 5 * section;
+        double cos1 = Math.cos(w), sin1 = Math.sin(w), cos2 = Math.cos(2 * w), sin2 = Math.sin(2 * w);
+        double numRe = sos[c] + sos[c + 1] * cos1 + sos[c + 2] * cos2;
+        double numIm = -sos[c + 1] * sin1 - sos[c + 2] * sin2;
+        double denRe = 1 + sos[c + 3] * cos1 + sos[c + 4] * cos2;
+        double denIm = -sos[c + 3] * sin1 - sos[c + 4] * sin2;
+        return Math.sqrt((numRe * numRe + numIm * numIm) / (denRe * denRe + denIm * denIm));
+    }
+
+    private static double asinh(double x) {
+        return Math.log(x + Math.sqrt(x * x + 1));
+    }
+
+    private static final class Complex {
+        final double re;
+        final double im;
+
+        Complex(double re, double im) {
+            this.re = re;
+            this.im = im;
+        }
+
+        Complex add(Complex o) {
+            return new Complex(re + o.re, im + o.im);
+        }
+
+        Complex sub(Complex o) {
+            return new Complex(re - o.re, im - o.im);
+        }
+
+        Complex mul(Complex o) {
+            return new Complex(re * o.re - im * o.im, re * o.im + im * o.re);
+        }
+
+        Complex div(Complex o) {
+            double d = o.re * o.re + o.im * o.im;
+            return new Complex((re * o.re + im * o.im) / d, (im * o.re - re * o.im) / d);
+        }
+
+        Complex scale(double k) {
+            return new Complex(re * k, im * k);
+        }
+
+        Complex conj() {
+            return new Complex(re, -im);
+        }
+
+        Complex sqrt() {
+            double r = Math.hypot(re, im);
+            double a = Math.sqrt((r + re) / 2);
+            double b = Math.copySign(Math.sqrt((r - re) / 2), im);
+            return new Complex(a, b);
+        }
+    }
+}
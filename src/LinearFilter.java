@@ -0,0 +1,12 @@
+// A block filter whose state update is linear: s' = A s + B x.
+// Exposing the state lets chunks of one signal be filtered independently and stitched afterwards.
+public interface LinearFilter extends BlockFilter {
+    int getStateSize();
+
+    void getState(double[] dst, int off);
+
+    void setState(double[] src, int off);
+
+    @Override
+    LinearFilter copy();
+}
@@ -1,10 +1,6 @@
-public class LowPassFilter {
-    public double[] applyFilter(double[] signal, double cutoff) {
-        // Simple low-pass filter implementation
-        double[] output = new double[signal.length];
-        for (int i = 1; i < signal.length; i++) {
-            output[i] = output[i - 1] + (cutoff * (signal[i] - output[i - 1]));
-        }
-        return output;
+public class LowPassFilter extends FirstOrderSection {
+    // Simple low-pass filter: y[n] = y[n-1] + cutoff * (x[n] - y[n-1])
+    public LowPassFilter(double cutoff) {
+        super(cutoff, 0.0, cutoff - 1.0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+// FIR filtering by FFT overlap-save. The kernel spectrum is computed once and shared by copies;
+// each instance owns its FFT scratch buffers, so process() allocates nothing.
+// Every FFT frame holds the last taps - 1 inputs followed by up to step new ones; the first taps - 1
+// outputs of the circular convolution are aliased and dropped, the rest are the linear convolution.
+// Blocks shorter than step still cost a full frame, so feed it at least step samples at a time when possible.
+public class OverlapSaveConvolver implements FirKernel {
+    private final double[] taps;
+    private final int size;           // FFT size
+    private final int step;           // new samples per frame
+    private final double[] kernelRe;  // spectrum of the zero-padded taps, bins 0 .. size/2
+    private final double[] kernelIm;
+
+    private final Fft fft;
+    private final double[] frame;
+    private final double[] result;
+    private final double[] specRe;
+    private final double[] specIm;
+    private final double[] history;   // last taps - 1 inputs
+
+    public OverlapSaveConvolver(double[] taps) {
+        this(taps, frameSize(taps.length));
+    }
+
+    // FFT size must be a power of two larger than the kernel
+    public OverlapSaveConvolver(double[] taps, int fftSize) {
+        if (taps.length == 0) {
+            throw new IllegalArgumentException("FIR filter needs at least one tap");
+        }
+        if (fftSize < 2 * taps.length) {
+            throw new IllegalArgumentException("FFT size " + fftSize + " too small for " + taps.length + " taps");
+        }
+        this.taps = taps;
+        this.size = fftSize;
+        this.step = fftSize - taps.length + 1;
+        this.fft = new Fft(fftSize);
+        this.kernelRe = new double[fftSize / 2 + 1];
+        this.kernelIm = new double[fftSize / 2 + 1];
+        double[] padded = new double[fftSize];
+        System.arraycopy(taps, 0, padded, 0, taps.length);
+        fft.realForward(padded, 0, kernelRe, kernelIm);
+        this.frame = new double[fftSize];
+        this.result = new double[fftSize];
+        this.specRe = new double[fftSize / 2 + 1];
+        this.specIm = new double[fftSize / 2 + 1];
+        this.history = new double[taps.length - 1];
+    }
+
+    private OverlapSaveConvolver(OverlapSaveConvolver other) {
+        this.taps = other.taps;
+        this.size = other.size;
+        this.step = other.step;
+        this.kernelRe = other.kernelRe;
+        this.kernelIm = other.kernelIm;
+        this.fft = new Fft(size);
+        this.frame = new double[size];
+        this.result = new double[size];
+        this.specRe = new double[size / 2 + 1];
+        this.specIm = new double[size / 2 + 1];
+        this.history = new double[taps.length - 1];
+    }
+
+    // About four times the kernel length keeps the aliased part of each frame small
+    private static int frameSize(int numTaps) {
+        int n = 64;
+        while (n < 4 * numTaps) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    @Override
+    public int getNumTaps() {
+        return taps.length;
+    }
+
+    @Override
+    public double[] getTaps() {
+        return taps;
+    }
+
+    public int getFftSize() {
+        return size;
+    }
+
+    // New samples consumed per FFT frame
+    public int getStep() {
+        return step;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        int h = history.length;
+        for (int start = 0; start < len; start += step) {
+            int n = Math.min(step, len - start);
+            System.arraycopy(history, 0, frame, 0, h);
+            System.arraycopy(in, inOff + start, frame, h, n);
+            Arrays.fill(frame, h + n, size, 0.0);
+            // Save the new history before out (which may alias in) is written
+            System.arraycopy(frame, n, history, 0, h);
+
+            fft.realForward(frame, 0, specRe, specIm);
+            SignalMath.get().multiplyComplex(specRe, specIm, kernelRe, kernelIm, specRe.length);
+            fft.realInverse(specRe, specIm, result, 0);
+            System.arraycopy(result, h, out, outOff + start, n);
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(history, 0.0);
+    }
+
+    @Override
+    public OverlapSaveConvolver copy() {
+        return new OverlapSaveConvolver(this);
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A cascade run as a pipeline: every stage has its own worker thread and passes blocks to the next stage
+// through an SpscRingBuffer, so the stages work on consecutive blocks at the same time. Memory is bounded by
+// the ring capacity, and a slow stage holds back the ones before it.
+//
+// process() feeds the input and collects the output on the calling thread and returns when the last block
+// is out, so it behaves like any other BlockFilter (stage state carries across calls). The workers stay up
+// between calls, which suits continuous monitoring; close() stops them.
+public class PipelinedCascade implements BlockFilter, AutoCloseable {
+    private final BlockFilter[] stages;
+    private final int blockSize;
+    private final int depth;
+    private final SpscRingBuffer[] rings; // rings[i] feeds stage i; rings[stages.length] is the output
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile Throwable failure;
+
+    public PipelinedCascade(int blockSize, int depth, BlockFilter... stages) {
+        if (stages.length == 0) {
+            throw new IllegalArgumentException("Pipeline needs at least one stage");
+        }
+        this.stages = stages.clone();
+        this.blockSize = blockSize;
+        this.depth = depth;
+        this.rings = new SpscRingBuffer[stages.length + 1];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new SpscRingBuffer(depth, blockSize);
+        }
+        for (int i = 0; i < stages.length; i++) {
+            int index = i;
+            workers.add(DspRuntime.startWorker("pipeline-stage-" + i, () -> runStage(index)));
+        }
+    }
+
+    private void runStage(int index) {
+        BlockFilter stage = stages[index];
+        SpscRingBuffer input = rings[index];
+        SpscRingBuffer output = rings[index + 1];
+        try {
+            double[] block;
+            while ((block = input.poll()) != null) {
+                int n = input.polledLength();
+                double[] target = output.claim();
+                stage.process(block, 0, target, 0, n);
+                output.publish(n);
+                input.release();
+            }
+            output.close();
+        } catch (Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+            for (SpscRingBuffer ring : rings) {
+                ring.abort();
+            }
+        }
+    }
+
+    public List<BlockFilter> getStages() {
+        return Arrays.asList(stages);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public void process(double[] in, int inOff, double[] out, int outOff, int len) {
+        SpscRingBuffer first = rings[0];
+        SpscRingBuffer last = rings[stages.length];
+        int fed = 0;
+        int collected = 0;
+        int spins = 0;
+        // Feed and drain without blocking on either side, so a full input ring never waits on an unread output ring
+        while (collected < len) {
+            boolean progress = false;
+            if (fed < len) {
+                double[] block = first.tryClaim();
+                if (block != null) {
+                    int n = Math.min(blockSize, len - fed);
+                    System.arraycopy(in, inOff + fed, block, 0, n);
+                    first.publish(n);
+                    fed += n;
+                    progress = true;
+                }
+            }
+            double[] block = last.tryPoll();
+            if (block != null) {
+                int n = last.polledLength();
+                System.arraycopy(block, 0, out, outOff + collected, n);
+                last.release();
+                collected += n;
+                progress = true;
+            }
+            if (progress) {
+                spins = 0;
+            } else {
+                if (failure != null || last.isAborted()) {
+                    throw new IllegalStateException("Pipeline stage failed", failure);
+                }
+                SpscRingBuffer.backOff(spins++, fed < len ? first : null, last);
+            }
+        }
+    }
+
+    // Only call between process() calls, when the pipeline is empty
+    @Override
+    public void reset() {
+        for (BlockFilter stage : stages) {
+            stage.reset();
+        }
+    }
+
+    // Same stages with fresh state, on new workers
+    @Override
+    public PipelinedCascade copy() {
+        BlockFilter[] fresh = new BlockFilter[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            fresh[i] = stages[i].copy();
+        }
+        return new PipelinedCascade(blockSize, depth, fresh);
+    }
+
+    // Let the workers drain and exit. If the caller is interrupted while waiting, the workers are aborted
+    // instead and the interrupt flag is restored.
+    @Override
+    public void close() {
+        rings[0].close();
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (SpscRingBuffer ring : rings) {
+                ring.abort();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Arrays;
+
+// Rational sample-rate change by up/down with a windowed-sinc anti-alias kernel, evaluated in polyphase form:
+// each output is one dot product of taps/up kernel values with the newest inputs, so only the outputs
+// that are kept get computed and zero-stuffed samples are never touched. Streams in blocks: the history
+// and the output phase carry over between process() calls.
+public class PolyphaseResampler {
+    private static final int BLOCK = 1024;
+    private static final int HALF_LENGTH = 10;    // kernel half-length in units of the slower rate's samples
+    private static final int MAX_FACTOR = 1 << 12;
+
+    private final int up;
+    private final int down;
+    private final int phaseTaps;
+    private final double[] phases; // phase p at [p * phaseTaps, (p + 1) * phaseTaps), back to front
+    private final double[] line;   // last phaseTaps - 1 inputs followed by the current block
+    private long time;             // next output position on the upsampled time line, relative to the block start
+
+    public PolyphaseResampler(int up, int down) {
+        if (up < 1 || down < 1 || up > MAX_FACTOR || down > MAX_FACTOR) {
+            throw new IllegalArgumentException("Resampling factors must be in 1.." + MAX_FACTOR + ", got " + up + "/" + down);
+        }
+        int g = gcd(up, down);
+        this.up = up / g;
+        this.down = down / g;
+        this.phases = design(this.up, this.down);
+        this.phaseTaps = phases.length / this.up;
+        this.line = new double[phaseTaps - 1 + BLOCK];
+    }
+
+    private PolyphaseResampler(PolyphaseResampler other) {
+        this.up = other.up;
+        this.down = other.down;
+        this.phases = other.phases;
+        this.phaseTaps = other.phaseTaps;
+        this.line = new double[other.line.length];
+    }
+
+    // Ratio outRate / inRate reduced to lowest terms; rates are rounded to the millihertz
+    public static PolyphaseResampler forRates(double inRate, double outRate) {
+        if (!(inRate > 0) || !(outRate > 0)) {
+            throw new IllegalArgumentException("Sample rates must be positive: " + inRate + " -> " + outRate);
+        }
+        long in = Math.round(inRate * 1000);
+        long out = Math.round(outRate * 1000);
+        long g = gcd(in, out);
+        if (out / g > MAX_FACTOR || in / g > MAX_FACTOR) {
+            throw new IllegalArgumentException("No small rational ratio for " + inRate + " -> " + outRate);
+        }
+        return new PolyphaseResampler((int) (out / g), (int) (in / g));
+    }
+
+    public int getUp() {
+        return up;
+    }
+
+    public int getDown() {
+        return down;
+    }
+
+    // Kernel delay in output samples
+    public double getDelay() {
+        return (double) upsampledDelay() / down;
+    }
+
+    // Kernel delay on the upsampled time line (whole samples there, though usually a fraction of an output)
+    private long upsampledDelay() {
+        return up == 1 && down == 1 ? 0 : (long) HALF_LENGTH * Math.max(up, down);
+    }
+
+    // Reset, then shift the output phase so outputs land exactly on the input time line: output k of the
+    // stream is output i = k - skip of the signal, at input position i * down / up. Returns skip, the number
+    // of leading outputs that fall before the signal starts and should be dropped.
+    public int startAligned() {
+        reset();
+        long delay = upsampledDelay();
+        time = delay % down;
+        return (int) (delay / down);
+    }
+
+    // Upper bound on the outputs produced from len more inputs
+    public int maxOutput(int len) {
+        return (int) (((long) len * up + down - 1) / down) + 1;
+    }
+
+    // Resample len inputs into out[outOff ..]; returns the number of outputs written
+    public int process(double[] in, int inOff, int len, double[] out, int outOff) {
+        int history = phaseTaps - 1;
+        SignalMath math = SignalMath.get();
+        int written = 0;
+        for (int start = 0; start < len; start += BLOCK) {
+            int n = Math.min(BLOCK, len - start);
+            System.arraycopy(in, inOff + start, line, history, n);
+            long end = (long) n * up;
+            while (time < end) {
+                int base = (int) (time / up);   // newest input sits at line[history + base]
+                int phase = (int) (time - (long) base * up);
+                out[outOff + written++] = math.dot(phases, phase * phaseTaps, line, base, phaseTaps);
+                time += down;
+            }
+            time -= end;
+            System.arraycopy(line, n, line, 0, history);
+        }
+        return written;
+    }
+
+    // Whole signal, with the kernel delay removed: ceil(n * up / down) outputs aligned with the input
+    public double[] apply(double[] signal) {
+        int length = (int) (((long) signal.length * up + down - 1) / down);
+        int skip = startAligned();
+        double[] tail = new double[2 * phaseTaps + 2 * down]; // zeros flush the delayed outputs
+        double[] out = new double[Math.max(maxOutput(signal.length), skip + length) + maxOutput(tail.length)];
+        int produced = process(signal, 0, signal.length, out, 0);
+        while (produced < skip + length) {
+            produced += process(tail, 0, tail.length, out, produced);
+        }
+        reset();
+        return Arrays.copyOfRange(out, skip, skip + length);
+    }
+
+    public void reset() {
+        Arrays.fill(line, 0.0);
+        time = 0;
+    }
+
+    // Same kernel, fresh state
+    public PolyphaseResampler copy() {
+        return new PolyphaseResampler(this);
+    }
+
+    // Low-pass at the upsampled rate, cutoff at the lower of the two Nyquist frequencies, gain up;
+    // split into up phases of equal length, each stored back to front for forward dot products
+    private static double[] design(int up, int down) {
+        if (up == 1 && down == 1) {
+            return new double[]{1.0};
+        }
+        int factor = Math.max(up, down);
+        int phaseTaps = (2 * HALF_LENGTH * factor + 1 + up - 1) / up;
+        double[] h = FirDesign.lowPass(2 * HALF_LENGTH * factor + 1, 0.5 / factor, 1.0);
+        double[] phases = new double[up * phaseTaps];
+        for (int p = 0; p < up; p++) {
+            for (int k = 0; k < phaseTaps; k++) {
+                int tap = p + k * up;
+                phases[p * phaseTaps + phaseTaps - 1 - k] = tap < h.length ? up * h[tap] : 0.0;
+            }
+        }
+        return phases;
+    }
+
+    private static int gcd(int a, int b) {
+        return (int) gcd((long) a, (long) b);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
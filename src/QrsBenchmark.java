@@ -0,0 +1,100 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// QRS detection over whole annotated databases. Every record with a .atr file is detected on the shared
+// DSP pool and scored against its reference beats; the summary gives gross sensitivity/PPV and throughput
+// in beats and samples per second of wall time. Records run one at a time unless -Ddsp.batch=concurrent,
+// which leaves the per-record timing columns empty.
+public class QrsBenchmark {
+    private static final SignalCache CACHE = SignalCache.getDefault();
+
+    // Usage: QrsBenchmark [output.csv] [record directory ...]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String outputFile = args.length > 0 ? args[0] : "qrs_results.csv";
+        String[] dataDirectories = args.length > 1
+                ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[]{"data/mit-bih-arrhythmia-database-1.0.0"};
+        File[] dirs = new File[dataDirectories.length];
+        for (int i = 0; i < dirs.length; i++) {
+            dirs[i] = new File(dataDirectories[i]);
+        }
+
+        String[] header = {
+                "Record",
+                "Reference Beats",
+                "Detected Beats",
+                "TP",
+                "FP",
+                "FN",
+                "Sensitivity (%)",
+                "Positive Predictivity (%)",
+                "Detection Time (ns)",
+                "Beats/s"
+        };
+
+        AtomicReference<QrsEvaluator> total = new AtomicReference<>(new QrsEvaluator(0, 0, 0));
+        AtomicLong totalSamples = new AtomicLong();
+        AtomicLong totalBeats = new AtomicLong();
+        List<File> annotations = BatchRunner.findFiles(".atr", dirs);
+        annotations.removeIf(file -> !new File(basePath(file) + ".hea").exists()); // e.g. stray per-segment .atr copies
+        BatchRunner<AnnotatedRecord> runner = new BatchRunner<>(QrsBenchmark::load, (file, record) -> {
+            long start = System.nanoTime();
+            int[] detected = QrsDetector.detect(record.ecg, record.sampleRate);
+            long elapsed = System.nanoTime() - start;
+            QrsEvaluator score = QrsEvaluator.compare(record.beats, detected, QrsEvaluator.tolerance(record.sampleRate));
+            total.accumulateAndGet(score, QrsEvaluator::plus);
+            totalSamples.addAndGet(record.ecg.length);
+            totalBeats.addAndGet(record.beats.length);
+            return new String[]{
+                    file.getName().replace(".atr", ""),
+                    String.valueOf(record.beats.length),
+                    String.valueOf(detected.length),
+                    String.valueOf(score.getTruePositives()),
+                    String.valueOf(score.getFalsePositives()),
+                    String.valueOf(score.getFalseNegatives()),
+                    String.valueOf(100 * score.getSensitivity()),
+                    String.valueOf(100 * score.getPositivePredictivity()),
+                    String.valueOf(elapsed),
+                    String.valueOf(record.beats.length / (elapsed / 1e9))
+            };
+        }, BatchRunner.configuredInFlight());
+        runner.setTimingColumns("Detection Time (ns)", "Beats/s");
+        long startTime = System.nanoTime();
+        BatchResults results = runner.run(header, annotations);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("Processed %d of %d records %s in %.1f ms (%s)%n", results.size(), annotations.size(),
+                runner.isConcurrent() ? "concurrently" : "one at a time", seconds * 1e3, DspRuntime.describe());
+        System.out.printf("Gross %s%n", total.get());
+        System.out.printf("Throughput: %.0f beats/s, %.0f samples/s%n", totalBeats.get() / seconds, totalSamples.get() / seconds);
+
+        results.writeCsv(outputFile);
+    }
+
+    // First signal of the record next to the annotation file, with the reference beat positions
+    private static AnnotatedRecord load(File annotationFile) throws IOException {
+        SignalCache.Entry entry = CACHE.loadWfdb(basePath(annotationFile) + ".hea");
+        AnnotationIndex annotations = AnnotationReader.read(annotationFile.getPath());
+        return new AnnotatedRecord(entry.getChannel(0), entry.getSampleRate(), annotations.beats(0, Integer.MAX_VALUE));
+    }
+
+    private static String basePath(File annotationFile) {
+        String path = annotationFile.getPath();
+        return path.substring(0, path.length() - ".atr".length());
+    }
+
+    private static class AnnotatedRecord {
+        final double[] ecg;
+        final double sampleRate;
+        final int[] beats;
+
+        AnnotatedRecord(double[] ecg, double sampleRate, int[] beats) {
+            this.ecg = ecg;
+            this.sampleRate = sampleRate;
+            this.beats = beats;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Streaming Pan-Tompkins QRS detector. Blocks go through the band-pass and derivative stages, then each sample
+// is squared, integrated over a 150 ms moving window and scanned for peaks against adaptive signal/noise
+// thresholds, with T-wave rejection and search-back for missed beats. All state lives in fixed-size arrays
+// sized from the sample rate, so memory per channel does not grow with the length of the record.
+// Beats are reported as sample positions of the R peak, in increasing order.
+public class QrsDetector implements SignalSink {
+    private static final int BLOCK = 1024;
+    private static final double LEARN_SECONDS = 2.0;   // thresholds are initialised from this much signal
+    private static final double WINDOW_SECONDS = 0.150; // moving-window integration
+    private static final double HOLD_SECONDS = 0.100;   // a peak must stay the maximum this long
+    private static final double REFRACTORY_SECONDS = 0.200;
+    private static final double T_WAVE_SECONDS = 0.360;
+    private static final double SEARCH_BACK_RR = 1.66;  // search back after this many average RR intervals
+
+    private final double sampleRate;
+    private final LongConsumer listener;
+    private final BiquadCascade bandPass;
+    private final FirFilter derivative;
+    private final int delay;       // band-pass group delay at the QRS, subtracted from reported positions
+    private final int window;
+    private final int hold;
+    private final int refractory;
+    private final int tWave;
+    private final int learn;
+
+    private final double[] filtered = new double[BLOCK];
+    private final double[] slopes = new double[BLOCK];
+    private final double[] squares;  // last window squared slopes (moving-window sum)
+    private final double[] history;  // |band-passed| for the last window + hold samples
+    private final double[] slopeHistory;
+    private final int[] rr = new int[8];
+    private final double[] pendingValue; // peaks seen while learning, replayed once thresholds exist
+    private final long[] pendingR;
+    private final double[] pendingSlope;
+
+    private long n;            // index of the next input sample
+    private double sum;
+    private double previous;
+    private double candidateValue;
+    private long candidateIndex = -1;
+    private boolean learning = true;
+    private double learnMax;
+    private double learnSum;
+    private int pending;
+    private double signalLevel;
+    private double noiseLevel;
+    private double threshold;
+    private long lastBeat = -1;
+    private double lastSlope;
+    private int rrCount;
+    private double rrAverage;
+    private double backValue;  // best sub-threshold peak since the last beat, for search-back
+    private long backR;
+    private double backSlope;
+
+    public QrsDetector(double sampleRate, LongConsumer listener) {
+        if (!(sampleRate > 60)) {
+            throw new IllegalArgumentException("QRS detection needs a sample rate above 60 Hz, got " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.listener = listener;
+        this.bandPass = new BiquadCascade(IirDesign.butterworth(IirDesign.Type.BAND_PASS, 2, 5.0, 15.0, sampleRate));
+        double k = sampleRate / 8;
+        this.derivative = new FirFilter(new double[]{2 * k, k, 0, -k, -2 * k});
+        this.delay = peakDelay(bandPass);
+        this.window = (int) Math.round(WINDOW_SECONDS * sampleRate);
+        this.hold = (int) Math.round(HOLD_SECONDS * sampleRate);
+        this.refractory = (int) Math.round(REFRACTORY_SECONDS * sampleRate);
+        this.tWave = (int) Math.round(T_WAVE_SECONDS * sampleRate);
+        this.learn = (int) Math.round(LEARN_SECONDS * sampleRate);
+        this.squares = new double[window];
+        this.history = new double[window + hold + 1];
+        this.slopeHistory = new double[history.length];
+        int capacity = learn / (hold + 1) + 2;
+        this.pendingValue = new double[capacity];
+        this.pendingR = new long[capacity];
+        this.pendingSlope = new double[capacity];
+    }
+
+    // Detect every beat of a whole signal
+    public static int[] detect(double[] signal, double sampleRate) {
+        int[][] beats = {new int[64]};
+        int[] count = {0};
+        QrsDetector detector = new QrsDetector(sampleRate, r -> {
+            if (count[0] == beats[0].length) {
+                beats[0] = Arrays.copyOf(beats[0], 2 * count[0]);
+            }
+            beats[0][count[0]++] = (int) r;
+        });
+        detector.write(signal, 0, signal.length);
+        detector.flush();
+        return Arrays.copyOf(beats[0], count[0]);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void write(double[] block, int offset, int length) {
+        for (int start = 0; start < length; start += BLOCK) {
+            int len = Math.min(BLOCK, length - start);
+            bandPass.process(block, offset + start, filtered, 0, len);
+            derivative.process(filtered, 0, slopes, 0, len);
+            for (int i = 0; i < len; i++) {
+                step(filtered[i], slopes[i]);
+            }
+        }
+    }
+
+    // End of stream: report a peak still waiting out its hold time
+    public void flush() {
+        if (candidateIndex >= 0) {
+            declare();
+        }
+        if (learning) {
+            finishLearning();
+        }
+    }
+
+    public void reset() {
+        bandPass.reset();
+        derivative.reset();
+        Arrays.fill(squares, 0.0);
+        Arrays.fill(history, 0.0);
+        Arrays.fill(slopeHistory, 0.0);
+        n = 0;
+        sum = 0;
+        previous = 0;
+        candidateIndex = -1;
+        learning = true;
+        learnMax = 0;
+        learnSum = 0;
+        pending = 0;
+        signalLevel = 0;
+        noiseLevel = 0;
+        threshold = 0;
+        lastBeat = -1;
+        rrCount = 0;
+        rrAverage = 0;
+        backValue = 0;
+    }
+
+    private void step(double x, double slope) {
+        int h = (int) (n % history.length);
+        history[h] = Math.abs(x);
+        slopeHistory[h] = Math.abs(slope);
+        double squared = slope * slope;
+        int w = (int) (n % window);
+        sum += squared - squares[w];
+        squares[w] = squared;
+        double integrated = Math.max(sum, 0.0) / window;
+
+        if (learning) {
+            learnMax = Math.max(learnMax, integrated);
+            learnSum += integrated;
+        }
+        if (candidateIndex >= 0) {
+            if (integrated > candidateValue) {
+                candidateValue = integrated;
+                candidateIndex = n;
+            } else if (n - candidateIndex >= hold) {
+                declare();
+            }
+        } else if (integrated > previous) {
+            // Only a rising edge starts a new candidate, so falling slopes are not taken for peaks
+            candidateValue = integrated;
+            candidateIndex = n;
+        }
+        previous = integrated;
+        n++;
+        if (learning && n >= learn) {
+            finishLearning();
+        }
+    }
+
+    // The candidate has stayed the maximum for the hold time: locate its R peak and classify it
+    private void declare() {
+        long from = Math.max(0, candidateIndex - window + 1);
+        long r = candidateIndex;
+        double best = -1;
+        double maxSlope = 0;
+        for (long i = from; i <= candidateIndex; i++) {
+            int h = (int) (i % history.length);
+            if (history[h] > best) {
+                best = history[h];
+                r = i;
+            }
+            maxSlope = Math.max(maxSlope, slopeHistory[h]);
+        }
+        r = Math.max(0, r - delay);
+        double value = candidateValue;
+        candidateIndex = -1;
+        if (learning) {
+            pendingValue[pending] = value;
+            pendingR[pending] = r;
+            pendingSlope[pending] = maxSlope;
+            pending++;
+        } else {
+            classify(value, r, maxSlope);
+        }
+    }
+
+    private void finishLearning() {
+        learning = false;
+        signalLevel = learnMax / 3;
+        noiseLevel = n > 0 ? learnSum / n / 2 : 0;
+        updateThreshold();
+        for (int i = 0; i < pending; i++) {
+            classify(pendingValue[i], pendingR[i], pendingSlope[i]);
+        }
+        pending = 0;
+    }
+
+    private void classify(double value, long r, double slope) {
+        // A long gap since the last beat: take the best peak above half the threshold as the missed beat
+        if (lastBeat >= 0 && rrAverage > 0 && backValue > 0 && r - lastBeat > SEARCH_BACK_RR * rrAverage) {
+            beat(backR, backValue, backSlope, true);
+        }
+        boolean sinceBeat = lastBeat < 0 || r - lastBeat >= refractory;
+        if (value > threshold && sinceBeat) {
+            // Within 360 ms of the last beat a peak with under half its slope is a T wave
+            if (lastBeat >= 0 && r - lastBeat < tWave && slope < 0.5 * lastSlope) {
+                noise(value, r, slope);
+            } else {
+                beat(r, value, slope, false);
+            }
+        } else {
+            noise(value, r, slope);
+        }
+    }
+
+    private void beat(long r, double value, double slope, boolean searchBack) {
+        if (lastBeat >= 0) {
+            rr[rrCount % rr.length] = (int) (r - lastBeat);
+            rrCount++;
+            int count = Math.min(rrCount, rr.length);
+            double total = 0;
+            for (int i = 0; i < count; i++) {
+                total += rr[i];
+            }
+            rrAverage = total / count;
+        }
+        signalLevel = searchBack ? 0.25 * value + 0.75 * signalLevel : 0.125 * value + 0.875 * signalLevel;
+        updateThreshold();
+        lastBeat = r;
+        lastSlope = slope;
+        backValue = 0;
+        listener.accept(r);
+    }
+
+    private void noise(double value, long r, double slope) {
+        noiseLevel = 0.125 * value + 0.875 * noiseLevel;
+        if (value > 0.5 * threshold && value > backValue && (lastBeat < 0 || r - lastBeat >= refractory)) {
+            backValue = value;
+            backR = r;
+            backSlope = slope;
+        }
+        updateThreshold();
+    }
+
+    private void updateThreshold() {
+        threshold = noiseLevel + 0.25 * (signalLevel - noiseLevel);
+    }
+
+    // Position of the band-pass impulse response peak, a stand-in for its group delay in the QRS band
+    private static int peakDelay(BiquadCascade filter) {
+        BiquadCascade probe = filter.copy();
+        double[] impulse = new double[256];
+        impulse[0] = 1.0;
+        probe.process(impulse, 0, impulse, 0, impulse.length);
+        int peak = 0;
+        for (int i = 1; i < impulse.length; i++) {
+            if (Math.abs(impulse[i]) > Math.abs(impulse[peak])) {
+                peak = i;
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,78 @@
+// Beat-by-beat comparison of detected QRS positions with reference annotations: a detection within the
+// match tolerance of a reference beat is a true positive, unmatched detections are false positives and
+// unmatched reference beats are false negatives. Counts add up across records for gross statistics.
+public class QrsEvaluator {
+    public static final double TOLERANCE_SECONDS = 0.150;
+
+    private final long truePositives;
+    private final long falsePositives;
+    private final long falseNegatives;
+
+    public QrsEvaluator(long truePositives, long falsePositives, long falseNegatives) {
+        this.truePositives = truePositives;
+        this.falsePositives = falsePositives;
+        this.falseNegatives = falseNegatives;
+    }
+
+    // Both arrays sorted ascending; each reference beat matches at most one detection
+    public static QrsEvaluator compare(int[] reference, int[] detected, int tolerance) {
+        long tp = 0;
+        int i = 0;
+        int j = 0;
+        while (i < reference.length && j < detected.length) {
+            int d = detected[j] - reference[i];
+            if (Math.abs(d) <= tolerance) {
+                tp++;
+                i++;
+                j++;
+            } else if (d < 0) {
+                j++;
+            } else {
+                i++;
+            }
+        }
+        return new QrsEvaluator(tp, detected.length - tp, reference.length - tp);
+    }
+
+    // Tolerance in samples for the standard 150 ms match window
+    public static int tolerance(double sampleRate) {
+        return (int) Math.round(TOLERANCE_SECONDS * sampleRate);
+    }
+
+    public QrsEvaluator plus(QrsEvaluator other) {
+        return new QrsEvaluator(truePositives + other.truePositives, falsePositives + other.falsePositives,
+                falseNegatives + other.falseNegatives);
+    }
+
+    public long getTruePositives() {
+        return truePositives;
+    }
+
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    public long getFalseNegatives() {
+        return falseNegatives;
+    }
+
+    // TP / (TP + FN)
+    public double getSensitivity() {
+        return ratio(truePositives, truePositives + falseNegatives);
+    }
+
+    // Positive predictivity, TP / (TP + FP)
+    public double getPositivePredictivity() {
+        return ratio(truePositives, truePositives + falsePositives);
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? Double.NaN : (double) part / whole;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TP=%d FP=%d FN=%d Se=%.2f%% +P=%.2f%%", truePositives, falsePositives, falseNegatives,
+                100 * getSensitivity(), 100 * getPositivePredictivity());
+    }
+}
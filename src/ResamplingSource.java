@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// Presents a SignalSource at another sample rate: every channel runs through its own copy of one
+// polyphase resampler as blocks are read, so records at different native rates (e.g. MIT-BIH at 360 Hz and
+// MIMIC-III at 125 Hz) come out at one common rate in a single streaming pass. The kernel delay is removed
+// exactly, as in PolyphaseResampler.apply(): output i sits at time i / sampleRate on the input's time line,
+// and when the source ends zeros are fed through to flush the remaining outputs, ceil(n * up / down) in all.
+public class ResamplingSource implements SignalSource {
+    private static final int CHUNK_FRAMES = 4096;
+
+    private final SignalSource source;
+    private final double sampleRate;
+    private final PolyphaseResampler[] resamplers;
+    private final double[][] input;
+    private final double[][] staging;
+    private int stagedPos;
+    private int stagedLen;
+    private int skip;          // leading outputs still to drop
+    private long inputFrames;
+    private long outputFrames; // outputs staged so far, after the skip
+    private long totalFrames = -1; // known once the source is exhausted
+
+    public ResamplingSource(SignalSource source, double sampleRate) {
+        this.source = source;
+        this.sampleRate = sampleRate;
+        PolyphaseResampler template = PolyphaseResampler.forRates(source.getSampleRate(), sampleRate);
+        int channels = source.getNumChannels();
+        this.resamplers = new PolyphaseResampler[channels];
+        this.input = new double[channels][CHUNK_FRAMES];
+        this.staging = new double[channels][template.maxOutput(CHUNK_FRAMES)];
+        for (int c = 0; c < channels; c++) {
+            resamplers[c] = template.copy();
+            skip = resamplers[c].startAligned();
+        }
+    }
+
+    @Override
+    public int getNumChannels() {
+        return resamplers.length;
+    }
+
+    @Override
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int read(double[][] block, int offset, int maxFrames) throws IOException {
+        // A short input read may yield no output yet, so keep pulling until something is staged
+        while (stagedPos == stagedLen) {
+            if (outputFrames == totalFrames) {
+                return -1;
+            }
+            int n = CHUNK_FRAMES; // zeros once the source is exhausted
+            if (totalFrames < 0) {
+                n = source.read(input, 0, CHUNK_FRAMES);
+                if (n < 0) {
+                    PolyphaseResampler r = resamplers.length == 0 ? null : resamplers[0];
+                    totalFrames = r == null ? 0 : (inputFrames * r.getUp() + r.getDown() - 1) / r.getDown();
+                    for (double[] channel : input) {
+                        Arrays.fill(channel, 0.0);
+                    }
+                    continue;
+                }
+                inputFrames += n;
+            }
+            int produced = 0;
+            for (int c = 0; c < resamplers.length; c++) {
+                produced = resamplers[c].process(input[c], 0, n, staging[c], 0); // the same count for every channel
+            }
+            stagedPos = Math.min(produced, skip);
+            skip -= stagedPos;
+            stagedLen = totalFrames < 0 ? produced : (int) Math.min(produced, stagedPos + totalFrames - outputFrames);
+            outputFrames += stagedLen - stagedPos;
+        }
+        int n = Math.min(maxFrames, stagedLen - stagedPos);
+        for (int c = 0; c < staging.length; c++) {
+            System.arraycopy(staging[c], stagedPos, block[c], offset, n);
+        }
+        stagedPos += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,64 @@
+// Plain-loop backend of SignalMath, always available
+final class ScalarSignalMath extends SignalMath {
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        float sum = 0;
+        for (int i = 0; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquares(double[] a, int off, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            double v = a[off + i];
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(double[] a, int aOff, double[] b, int bOff, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            double d = a[aOff + i] - b[bOff + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public void addScaled(double[] x, int xOff, double gain, double[] acc, int accOff, int len) {
+        for (int i = 0; i < len; i++) {
+            acc[accOff + i] += gain * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void scale(double[] x, int off, double gain, int len) {
+        for (int i = 0; i < len; i++) {
+            x[off + i] *= gain;
+        }
+    }
+
+    @Override
+    public void multiplyComplex(double[] re, double[] im, double[] kRe, double[] kIm, int len) {
+        for (int k = 0; k < len; k++) {
+            double r = re[k] * kRe[k] - im[k] * kIm[k];
+            double i = re[k] * kIm[k] + im[k] * kRe[k];
+            re[k] = r;
+            im[k] = i;
+        }
+    }
+}
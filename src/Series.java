@@ -1,46 +1,41 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.*;
 public class Series {
+    private ExecutionPlan lastPlan;
+
     public double[] applySeries(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
-        double[] lowPassResult = filter.lowPassFilter(signal, lowCutoff);
-        double[] highPassResult = filter.highPassFilter(signal, highCutoff);
-        double[] bandPassResult = filter.bandPassFilter(signal, lowCutoff, highCutoff);
+        // All three filters run in one traversal of the signal
+        FilterBank.Result results = applySeriesBank(signal, lowCutoff, highCutoff, filter);
 
         // Combine the results if needed or return one of them as the final signal
-        return bandPassResult; // Assuming band-pass filtering is the primary output
+        return results.get("band-pass"); // Assuming band-pass filtering is the primary output
     }
-    public double[] applySeriesWithThreads(double[] signal, double lowCutoff, double highCutoff, Filter filter) throws InterruptedException, ExecutionException {
-        // Create a thread pool with 3 threads for applying each filter
-        ExecutorService executor = Executors.newFixedThreadPool(3);
-
-        // List to hold tasks (each filter will be applied in a separate task)
-        List<Callable<double[]>> tasks = new ArrayList<>();
-
-        // Add tasks for each filter
-        tasks.add(() -> filter.lowPassFilter(signal, lowCutoff));   // Low-pass filter
-        tasks.add(() -> filter.highPassFilter(signal, highCutoff)); // High-pass filter
-        tasks.add(() -> filter.bandPassFilter(signal, lowCutoff, highCutoff)); // Band-pass filter
-
-        // Execute all tasks in parallel
-        List<Future<double[]>> results = executor.invokeAll(tasks);
-
-        // Shut down the executor
-        executor.shutdown();
 
-        // Create a 1D array to store the combined results
-        double[] finalResult = new double[3 * signal.length];  // 3 filters, each with the same length as the signal
+    // Low-pass, high-pass and band-pass outputs from a single pass over the signal
+    public FilterBank.Result applySeriesBank(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
+        return seriesBank(lowCutoff, highCutoff, filter).process(signal);
+    }
 
-        // Iterate over the results and store them in the 1D array
-        int index = 0;
-        for (Future<double[]> result : results) {
-            double[] res = result.get();  // Get the filtered signal from the Future
-            System.arraycopy(res, 0, finalResult, index * signal.length, res.length);  // Copy the filtered signal to the 1D array
-            index++;
+    // Same outputs, with the signal split into time blocks that run in parallel (each block computes all three filters)
+    // The planner decides whether splitting pays for this signal length; small signals stay on one pass
+    public FilterBank.Result applySeriesWithThreads(double[] signal, double lowCutoff, double highCutoff, Filter filter) throws InterruptedException, ExecutionException {
+        FilterBank bank = seriesBank(lowCutoff, highCutoff, filter);
+        lastPlan = ExecutionPlanner.plan(signal.length, bank.getNumSections(), bank.decayHorizon(signal.length));
+        if (lastPlan.getMode() == ExecutionPlan.Mode.SEQUENTIAL) {
+            return bank.process(signal);
         }
+        return bank.processParallel(signal, DspRuntime.pool(), lastPlan.getChunks());
+    }
+
+    // How the last applySeriesWithThreads call ran
+    public ExecutionPlan getLastPlan() {
+        return lastPlan;
+    }
 
-        // Return the combined 1D array containing all three filter results
-        return finalResult;
+    public FilterBank seriesBank(double lowCutoff, double highCutoff, Filter filter) {
+        return new FilterBank()
+                .addBranch("low-pass", filter.lowPassStage(lowCutoff))
+                .addBranch("high-pass", filter.highPassStage(highCutoff))
+                .addBranch("band-pass", filter.bandPassStage(lowCutoff, highCutoff));
     }
 
 //    public double[] applySeries(double[] signal, double lowCutoff, double highCutoff, Filter filter) {
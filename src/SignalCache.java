@@ -0,0 +1,389 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+// On-disk cache of decoded signals, so repeated runs skip header parsing and sample decoding.
+//
+// Each entry is one little-endian file: a small header, then one column per channel. Columns are int16
+// with a per-channel gain when that reproduces every decoded value exactly (WFDB ADC samples, 16-bit PCM),
+// otherwise float32. Entries are keyed by the source files' paths, sizes and modification times plus a
+// decoder settings string; a changed source or setting misses the cache and the entry is rewritten.
+// Entries are written to a temporary file and renamed into place, so concurrent readers never see a partial file;
+// reads memory-map the entry and convert the columns straight into double arrays.
+public class SignalCache {
+    private static final int MAGIC = 0x43474953; // "SIGC"
+    private static final int VERSION = 1;
+    private static final int INT16 = 1;
+    private static final int FLOAT32 = 2;
+
+    private final File directory;
+
+    public SignalCache(File directory) {
+        this.directory = directory;
+    }
+
+    // Cache directory from -Ddsp.cache (default .signal-cache in the working directory; "off" disables caching)
+    public static SignalCache getDefault() {
+        String dir = System.getProperty("dsp.cache", ".signal-cache");
+        return new SignalCache("off".equalsIgnoreCase(dir) ? null : new File(dir));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    // Decodes the source files into an Entry; only called on a cache miss
+    public interface Decoder {
+        Entry decode() throws IOException;
+    }
+
+    // Decoded channels plus the sample rate; gains (ADC units per value, one per channel) may be null
+    public static class Entry {
+        private final double[][] channels;
+        private final double sampleRate;
+        private final double[] gains;
+
+        public Entry(double[][] channels, double sampleRate, double[] gains) {
+            this.channels = channels;
+            this.sampleRate = sampleRate;
+            this.gains = gains;
+        }
+
+        public double[][] getChannels() {
+            return channels;
+        }
+
+        public double[] getChannel(int index) {
+            return channels[index];
+        }
+
+        public int getNumChannels() {
+            return channels.length;
+        }
+
+        public int getNumSamples() {
+            return channels.length == 0 ? 0 : channels[0].length;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+    }
+
+    // The cached entry for these sources and settings, decoding and storing it on a miss
+    public Entry load(String settings, Decoder decoder, File... sources) throws IOException {
+        if (directory == null) {
+            return decoder.decode();
+        }
+        String key = key(settings, sources);
+        File file = entryFile(key, sources);
+        if (file.isFile()) {
+            Entry cached = read(file, key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Entry entry = decoder.decode();
+        try {
+            write(file, key, entry);
+        } catch (IOException e) {
+            System.err.println("Could not cache " + sources[0] + ": " + e.getMessage());
+        }
+        return entry;
+    }
+
+    // Single-precision view of the same entry: cached columns are converted straight to float, with no
+    // double[] copy of the record in between
+    public FloatSignal loadFloat(String settings, Decoder decoder, File... sources) throws IOException {
+        if (directory != null) {
+            String key = key(settings, sources);
+            File file = entryFile(key, sources);
+            if (file.isFile()) {
+                FloatSignal cached = readFloat(file, key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        Entry entry = load(settings, decoder, sources);
+        return FloatSignal.of(entry.getChannels(), entry.getSampleRate());
+    }
+
+    // All signals of a WFDB record, keyed on the header and its data files
+    public Entry loadWfdb(String headerPath) throws IOException {
+        WfdbHeader header = WfdbHeader.parse(headerPath);
+        return load("wfdb", wfdbDecoder(header), wfdbSources(header));
+    }
+
+    // The same record at another sample rate, streamed through a ResamplingSource so records with different
+    // native rates (MIT-BIH at 360 Hz, MIMIC-III at 125 Hz) can be compared at one rate; cached separately
+    // per rate; resampled values are off the ADC grid, so the entry has no gains and is stored as float32
+    public Entry loadWfdb(String headerPath, double sampleRate) throws IOException {
+        WfdbHeader header = WfdbHeader.parse(headerPath);
+        if (header.getSampleRate() == sampleRate) {
+            return load("wfdb", wfdbDecoder(header), wfdbSources(header));
+        }
+        return load("wfdb@" + sampleRate, () -> resample(header, sampleRate), wfdbSources(header));
+    }
+
+    public FloatSignal loadWfdbFloat(String headerPath) throws IOException {
+        WfdbHeader header = WfdbHeader.parse(headerPath);
+        return loadFloat("wfdb", wfdbDecoder(header), wfdbSources(header));
+    }
+
+    private static File[] wfdbSources(WfdbHeader header) {
+        File[] sources = new File[header.getNumSignals() + 1];
+        sources[0] = header.getHeaderFile();
+        for (int i = 0; i < header.getNumSignals(); i++) {
+            sources[i + 1] = header.resolveDataFile(header.getSignals().get(i));
+        }
+        return sources;
+    }
+
+    private static Entry resample(WfdbHeader header, double sampleRate) throws IOException {
+        try (ResamplingSource source = new ResamplingSource(new WfdbStream(header), sampleRate)) {
+            int capacity = (int) Math.ceil(header.getNumSamples() * sampleRate / header.getSampleRate()) + 1;
+            double[][] channels = new double[source.getNumChannels()][Math.max(capacity, 1024)];
+            int length = 0;
+            int n;
+            while ((n = source.read(channels, length, channels[0].length - length)) >= 0) {
+                length += n;
+                if (length == channels[0].length) {
+                    for (int c = 0; c < channels.length; c++) {
+                        channels[c] = Arrays.copyOf(channels[c], 2 * length);
+                    }
+                }
+            }
+            for (int c = 0; c < channels.length; c++) {
+                channels[c] = Arrays.copyOf(channels[c], length);
+            }
+            return new Entry(channels, sampleRate, null);
+        }
+    }
+
+    private static Decoder wfdbDecoder(WfdbHeader header) {
+        return () -> {
+            double[] gains = new double[header.getNumSignals()];
+            for (int i = 0; i < gains.length; i++) {
+                gains[i] = header.getSignals().get(i).getGain();
+            }
+            return new Entry(WfdbReader.read(header).getChannels(), header.getSampleRate(), gains);
+        };
+    }
+
+    private File entryFile(String key, File... sources) {
+        return new File(directory, sources[0].getName() + "-" + Long.toHexString(hash(key)) + ".sigc");
+    }
+
+    private static String key(String settings, File... sources) {
+        StringBuilder key = new StringBuilder(settings);
+        for (File source : sources) {
+            key.append('|').append(source.getAbsolutePath()).append('|').append(source.length()).append('|').append(source.lastModified());
+        }
+        return key.toString();
+    }
+
+    // 64-bit FNV-1a of the key
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Header: magic, version, layout, channels, frames, sample rate, key length, key bytes, gain per channel.
+    // Returns the mapped entry positioned at its first column, or null if the file is not an entry for key.
+    private static Stored map(File file, String key) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // outlives the channel
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 32 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            Stored stored = new Stored();
+            stored.layout = buffer.getInt();
+            stored.numChannels = buffer.getInt();
+            stored.frames = buffer.getInt();
+            stored.sampleRate = buffer.getDouble();
+            int keyLength = buffer.getInt();
+            // A damaged or foreign file is treated as a miss, so load() decodes again and overwrites it
+            if ((stored.layout != INT16 && stored.layout != FLOAT32) || stored.numChannels < 0 || stored.frames < 0
+                    || keyLength < 0 || keyLength > buffer.remaining()) {
+                return null;
+            }
+            byte[] storedKey = new byte[keyLength];
+            buffer.get(storedKey);
+            if (!key.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+                return null; // hash collision or stale entry
+            }
+            long sampleBytes = stored.layout == INT16 ? 2 : 4;
+            if (buffer.remaining() < 8L * stored.numChannels
+                    || buffer.remaining() - 8L * stored.numChannels < (long) stored.frames * stored.numChannels * sampleBytes) {
+                return null;
+            }
+            stored.gains = new double[stored.numChannels];
+            for (int c = 0; c < stored.numChannels; c++) {
+                stored.gains[c] = buffer.getDouble();
+            }
+            stored.columns = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            return stored;
+        }
+    }
+
+    private static Entry read(File file, String key) throws IOException {
+        Stored stored = map(file, key);
+        if (stored == null) {
+            return null;
+        }
+        int frames = stored.frames;
+        double[][] channels = new double[stored.numChannels][frames];
+        // Bulk-copy each column out of the mapping, then widen
+        if (stored.layout == INT16) {
+            ShortBuffer columns = stored.columns.asShortBuffer();
+            short[] raw = new short[frames];
+            for (int c = 0; c < stored.numChannels; c++) {
+                columns.get(raw);
+                double scale = 1.0 / stored.gains[c];
+                double[] column = channels[c];
+                for (int i = 0; i < frames; i++) {
+                    column[i] = raw[i] * scale;
+                }
+            }
+        } else {
+            FloatBuffer columns = stored.columns.asFloatBuffer();
+            float[] raw = new float[frames];
+            for (int c = 0; c < stored.numChannels; c++) {
+                columns.get(raw);
+                double[] column = channels[c];
+                for (int i = 0; i < frames; i++) {
+                    column[i] = raw[i];
+                }
+            }
+        }
+        return new Entry(channels, stored.sampleRate, stored.gains);
+    }
+
+    // Same values as read() narrowed to float; float32 columns are copied out of the mapping as they are
+    private static FloatSignal readFloat(File file, String key) throws IOException {
+        Stored stored = map(file, key);
+        if (stored == null) {
+            return null;
+        }
+        int frames = stored.frames;
+        float[][] channels = new float[stored.numChannels][frames];
+        if (stored.layout == INT16) {
+            ShortBuffer columns = stored.columns.asShortBuffer();
+            short[] raw = new short[frames];
+            for (int c = 0; c < stored.numChannels; c++) {
+                columns.get(raw);
+                double scale = 1.0 / stored.gains[c];
+                float[] column = channels[c];
+                for (int i = 0; i < frames; i++) {
+                    column[i] = (float) (raw[i] * scale);
+                }
+            }
+        } else {
+            FloatBuffer columns = stored.columns.asFloatBuffer();
+            for (int c = 0; c < stored.numChannels; c++) {
+                columns.get(channels[c]);
+            }
+        }
+        return new FloatSignal(channels, stored.sampleRate);
+    }
+
+    // Header fields of a mapped entry
+    private static class Stored {
+        int layout;
+        int numChannels;
+        int frames;
+        double sampleRate;
+        double[] gains;
+        ByteBuffer columns;
+    }
+
+    private void write(File file, String key, Entry entry) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Cannot create signal cache directory " + directory);
+            return;
+        }
+        int numChannels = entry.getNumChannels();
+        int frames = entry.getNumSamples();
+        double[] gains = new double[numChannels];
+        boolean exact = entry.gains != null;
+        for (int c = 0; c < numChannels && exact; c++) {
+            gains[c] = entry.gains[c];
+            exact = fitsInt16(entry.channels[c], gains[c]);
+        }
+        int layout = exact ? INT16 : FLOAT32;
+        if (!exact) {
+            Arrays.fill(gains, 1.0);
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int headerSize = 4 * 5 + 8 + 4 + keyBytes.length + 8 * numChannels;
+        long size = headerSize + (long) numChannels * frames * (layout == INT16 ? 2 : 4);
+        if (size > Integer.MAX_VALUE) {
+            System.err.println("Signal too large to cache: " + file.getName());
+            return;
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            // Written through a heap buffer rather than a mapping, so the file can be renamed right away on every platform
+            try (RandomAccessFile raf = new RandomAccessFile(temp, "rw"); FileChannel channel = raf.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(layout).putInt(numChannels).putInt(frames);
+                buffer.putDouble(entry.sampleRate);
+                buffer.putInt(keyBytes.length).put(keyBytes);
+                for (double gain : gains) {
+                    buffer.putDouble(gain);
+                }
+                for (int c = 0; c < numChannels; c++) {
+                    double[] column = entry.channels[c];
+                    if (layout == INT16) {
+                        for (int i = 0; i < frames; i++) {
+                            buffer.putShort((short) Math.round(column[i] * gains[c]));
+                        }
+                    } else {
+                        for (int i = 0; i < frames; i++) {
+                            buffer.putFloat((float) column[i]);
+                        }
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    // Every value is an int16 ADC count divided by gain, exactly as the decoders compute it
+    private static boolean fitsInt16(double[] column, double gain) {
+        if (!(gain > 0)) {
+            return false;
+        }
+        double scale = 1.0 / gain;
+        for (double v : column) {
+            long q = Math.round(v * gain);
+            if (q < Short.MIN_VALUE || q > Short.MAX_VALUE || q * scale != v) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+// Array kernels shared by the non-recursive stages: FIR dot products, elementwise ops and
+// sum-of-squares reductions. Two backends: plain loops, and jdk.incubator.vector SIMD.
+//
+// The vector backend lives in its own source root (simd/src, compiled with --add-modules
+// jdk.incubator.vector), so this code builds and runs without the incubator module. It is loaded
+// reflectively and used when its classes are on the classpath, the JVM runs with
+// --add-modules jdk.incubator.vector and the dsp.simd property is not "false"; otherwise everything
+// falls back to the scalar backend. simd/test/SignalMathAgreementTest checks that the two agree.
+public abstract class SignalMath {
+    private static final SignalMath SCALAR = new ScalarSignalMath();
+    private static volatile SignalMath vector;
+    private static volatile SignalMath current = SCALAR;
+
+    static {
+        String simd = System.getProperty("dsp.simd");
+        if (!"false".equalsIgnoreCase(simd)) {
+            // Only complain about a missing module when SIMD was asked for explicitly
+            vector = loadVector(simd != null);
+            current = vector != null ? vector : SCALAR;
+        }
+    }
+
+    // The backend currently selected
+    public static SignalMath get() {
+        return current;
+    }
+
+    public static SignalMath scalar() {
+        return SCALAR;
+    }
+
+    public static boolean isVectorized() {
+        return current != SCALAR;
+    }
+
+    // Switch backends at runtime; returns whether the vector backend is now in use
+    public static synchronized boolean setVectorized(boolean enabled) {
+        if (!enabled) {
+            current = SCALAR;
+            return false;
+        }
+        if (vector == null) {
+            vector = loadVector(true);
+        }
+        current = vector != null ? vector : SCALAR;
+        return current != SCALAR;
+    }
+
+    private static SignalMath loadVector(boolean warn) {
+        try {
+            return (SignalMath) Class.forName("VectorSignalMath").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (warn) {
+                System.err.println("Vector API not available (" + e + "), using scalar kernels");
+            }
+            return null;
+        }
+    }
+
+    // sum a[aOff + i] * b[bOff + i]
+    public abstract double dot(double[] a, int aOff, double[] b, int bOff, int len);
+
+    // Single-precision dot product (float FIR kernels)
+    public abstract float dot(float[] a, int aOff, float[] b, int bOff, int len);
+
+    // sum a[off + i]^2
+    public abstract double sumOfSquares(double[] a, int off, int len);
+
+    // sum (a[aOff + i] - b[bOff + i])^2
+    public abstract double squaredDistance(double[] a, int aOff, double[] b, int bOff, int len);
+
+    // acc[accOff + i] += gain * x[xOff + i] (mixing)
+    public abstract void addScaled(double[] x, int xOff, double gain, double[] acc, int accOff, int len);
+
+    // x[off + i] *= gain
+    public abstract void scale(double[] x, int off, double gain, int len);
+
+    // (re + i im)[k] *= (kRe + i kIm)[k] for k < len, in place
+    public abstract void multiplyComplex(double[] re, double[] im, double[] kRe, double[] kIm, int len);
+
+    // Whole-array helpers for quality metrics
+    public double sumOfSquares(double[] a) {
+        return sumOfSquares(a, 0, a.length);
+    }
+
+    public double squaredDistance(double[] a, double[] b) {
+        return squaredDistance(a, 0, b, 0, a.length);
+    }
+}
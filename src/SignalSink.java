@@ -0,0 +1,5 @@
+// Receives filtered samples block by block; the array is reused after the call returns
+@FunctionalInterface
+public interface SignalSink {
+    void write(double[] block, int offset, int length);
+}
@@ -0,0 +1,14 @@
+import java.io.IOException;
+
+// A multi-channel sample stream that is consumed in fixed-size blocks
+public interface SignalSource extends AutoCloseable {
+    int getNumChannels();
+
+    double getSampleRate();
+
+    // Fill block[c][offset .. offset + n) for every channel; returns n, or -1 once the stream is exhausted
+    int read(double[][] block, int offset, int maxFrames) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,177 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded lock-free ring of preallocated sample blocks between exactly one producer thread and one
+// consumer thread. The producer claims a free block, fills it and publishes it with a length; the
+// consumer polls it, reads it and releases it back to the producer. Blocks are recycled, never allocated,
+// and a full ring makes the producer wait (back-pressure). A waiting side spins, then yields, then parks;
+// a parked thread is registered on the ring and unparked by the other side's publish, release, close or abort.
+public class SpscRingBuffer {
+    private final double[][] blocks;
+    private final int[] lengths;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next block to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next block to write, written by the producer
+    private volatile boolean closed;
+    private volatile boolean aborted;
+    private volatile Thread parkedProducer; // waiting for release() (or abort())
+    private volatile Thread parkedConsumer; // waiting for publish() or close() (or abort())
+
+    // Producer-side and consumer-side caches of the other side's counter
+    private long cachedHead;
+    private long cachedTail;
+
+    // capacity is rounded up to a power of two
+    public SpscRingBuffer(int capacity, int blockSize) {
+        if (capacity < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("Ring needs capacity and block size >= 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        blocks = new double[size][blockSize];
+        lengths = new int[size];
+        mask = size - 1;
+    }
+
+    public int getBlockSize() {
+        return blocks[0].length;
+    }
+
+    public int getCapacity() {
+        return blocks.length;
+    }
+
+    // Producer: a free block to fill, or null if the ring is full
+    public double[] tryClaim() {
+        long t = tail.get();
+        if (t - cachedHead >= blocks.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= blocks.length) {
+                return null;
+            }
+        }
+        return blocks[(int) (t & mask)];
+    }
+
+    // Producer: wait for a free block
+    public double[] claim() {
+        double[] block;
+        for (int spins = 0; (block = tryClaim()) == null; spins++) {
+            checkAborted();
+            backOff(spins, this, null);
+        }
+        return block;
+    }
+
+    // Producer: hand the claimed block to the consumer
+    public void publish(int length) {
+        long t = tail.get();
+        lengths[(int) (t & mask)] = length;
+        tail.set(t + 1); // a full store, ordered before the read of parkedConsumer
+        unpark(parkedConsumer);
+    }
+
+    // Producer: no more blocks will be published
+    public void close() {
+        closed = true;
+        unpark(parkedConsumer);
+    }
+
+    // Consumer: the next published block, or null if none is ready
+    public double[] tryPoll() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        return blocks[(int) (h & mask)];
+    }
+
+    // Consumer: wait for the next block; null once the producer has closed and the ring is drained
+    public double[] poll() {
+        double[] block;
+        for (int spins = 0; (block = tryPoll()) == null; spins++) {
+            checkAborted();
+            if (closed) {
+                return tryPoll(); // blocks published before close() are still delivered
+            }
+            backOff(spins, null, this);
+        }
+        return block;
+    }
+
+    // Consumer: number of samples in the block returned by the last poll
+    public int polledLength() {
+        return lengths[(int) (head.get() & mask)];
+    }
+
+    // Consumer: give the polled block back to the producer
+    public void release() {
+        head.set(head.get() + 1); // a full store, ordered before the read of parkedProducer
+        unpark(parkedProducer);
+    }
+
+    // Either side: wake the other with an exception (used when a stage fails)
+    public void abort() {
+        aborted = true;
+        unpark(parkedProducer);
+        unpark(parkedConsumer);
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    private void checkAborted() {
+        if (aborted) {
+            throw new IllegalStateException("Ring buffer aborted");
+        }
+    }
+
+    // Wait for a ring the caller produces into (claimFrom) to have a free block, or a ring it consumes
+    // (pollFrom) to have a block or be closed; either may be null. Spin briefly, then yield, then park until
+    // the other side signals: cheap hand-offs when busy, no CPU at all when idle. The parked thread is
+    // registered before the condition is checked again, and the other side stores its counter before it
+    // reads the registration, so a wake-up cannot fall in between. Callers loop, so a spurious return is fine.
+    static void backOff(int spins, SpscRingBuffer claimFrom, SpscRingBuffer pollFrom) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+            return;
+        }
+        if (spins < 120) {
+            Thread.yield();
+            return;
+        }
+        Thread self = Thread.currentThread();
+        if (claimFrom != null) {
+            claimFrom.parkedProducer = self;
+        }
+        if (pollFrom != null) {
+            pollFrom.parkedConsumer = self;
+        }
+        try {
+            boolean ready = claimFrom != null && (claimFrom.aborted || claimFrom.tryClaim() != null)
+                    || pollFrom != null && (pollFrom.aborted || pollFrom.closed || pollFrom.tryPoll() != null);
+            if (!ready) {
+                LockSupport.park(pollFrom != null ? pollFrom : claimFrom);
+            }
+        } finally {
+            if (claimFrom != null) {
+                claimFrom.parkedProducer = null;
+            }
+            if (pollFrom != null) {
+                pollFrom.parkedConsumer = null;
+            }
+        }
+    }
+
+    private static void unpark(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -1,17 +1,12 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.*;
 
 public class ThreadedFilter {
-    private static final int THREAD_COUNT = 4;
+    private ExecutionPlan lastPlan;
 
     // Low-pass filter implementation (simplified for demonstration)
     public void applyLowPassFilter(double[] signal, double[] cutoffValues) {
-        // Implement a basic low-pass filter (for simplicity, a simple moving average or simple low-pass)
-        // Apply filter to signal using cutoff values (just for demonstration)
-        for (int i = 1; i < signal.length; i++) {
-            signal[i] = signal[i] * cutoffValues[0] + signal[i - 1] * (1 - cutoffValues[0]);
-        }
+        // y[i] = x[i] * c + y[i - 1] * (1 - c)
+        applyFilter(signal, section(cutoffValues, "low-pass"));
     }
 
     // Low-pass filter with threading
@@ -21,10 +16,8 @@ public class ThreadedFilter {
 
     // High-pass filter implementation (simplified)
     public void applyHighPassFilter(double[] signal, double[] cutoffValues) {
-        // Implement a basic high-pass filter (example)
-        for (int i = 1; i < signal.length; i++) {
-            signal[i] = signal[i] - signal[i - 1] * cutoffValues[0];
-        }
+        // y[i] = x[i] - y[i - 1] * c
+        applyFilter(signal, section(cutoffValues, "high-pass"));
     }
 
     // High-pass filter with threading
@@ -34,10 +27,8 @@ public class ThreadedFilter {
 
     // Band-pass filter implementation (simplified)
     public void applyBandPassFilter(double[] signal, double[] cutoffValues) {
-        // Implement a simple band-pass filter (example)
-        for (int i = 1; i < signal.length; i++) {
-            signal[i] = (signal[i] * cutoffValues[1] - signal[i - 1] * cutoffValues[0]);
-        }
+        // y[i] = x[i] * c1 - y[i - 1] * c0
+        applyFilter(signal, section(cutoffValues, "band-pass"));
     }
 
     // Band-pass filter with threading
@@ -45,61 +36,41 @@ public class ThreadedFilter {
         applyFilterWithThreads(signal, cutoffValues, "band-pass");
     }
 
-    // Shared method for threaded filter application
-    private void applyFilterWithThreads(double[] signal, double[] cutoffValues, String filterType) throws InterruptedException, ExecutionException {
-        int signalLength = signal.length;
-        int chunkSize = signalLength / THREAD_COUNT;
-        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-        List<Future<Void>> futures = new ArrayList<>();
-
-        for (int i = 0; i < THREAD_COUNT; i++) {
-            int start = i * chunkSize;
-            int end = (i == THREAD_COUNT - 1) ? signalLength : (i + 1) * chunkSize;
-            futures.add(executor.submit(new FilterTask(signal, cutoffValues, start, end, filterType)));
+    // In-place filtering of signal[1..]; signal[0] is kept and seeds the recurrence
+    private void applyFilter(double[] signal, FirstOrderSection section) {
+        if (signal.length > 1) {
+            section.setState(new double[]{0.0, signal[0]}, 0);
+            section.process(signal, 1, signal, 1, signal.length - 1);
         }
+    }
 
-        for (Future<Void> future : futures) {
-            future.get(); // Wait for all threads to finish
+    // Shared method for threaded filter application: when the planner picks chunk-parallel, chunks are
+    // filtered in parallel and their boundary states stitched, so the result matches the sequential recurrence
+    private void applyFilterWithThreads(double[] signal, double[] cutoffValues, String filterType) throws InterruptedException, ExecutionException {
+        if (signal.length <= 1) {
+            return;
         }
-
-        executor.shutdown();
+        FirstOrderSection section = section(cutoffValues, filterType);
+        section.setState(new double[]{0.0, signal[0]}, 0);
+        lastPlan = ExecutionPlanner.execute(section, signal, 1, signal, 1, signal.length - 1);
     }
 
-    // Filter task for threading
-    private static class FilterTask implements Callable<Void> {
-        private final double[] signal;
-        private final double[] cutoffValues;
-        private final int start;
-        private final int end;
-        private final String filterType;
-
-        public FilterTask(double[] signal, double[] cutoffValues, int start, int end, String filterType) {
-            this.signal = signal;
-            this.cutoffValues = cutoffValues;
-            this.start = start;
-            this.end = end;
-            this.filterType = filterType;
-        }
+    // How the last threaded call ran (sequential when chunks would not pay for themselves)
+    public ExecutionPlan getLastPlan() {
+        return lastPlan;
+    }
 
-        @Override
-        public Void call() {
-            for (int i = start; i < end; i++) {
-                // Apply appropriate filter based on filterType
-                switch (filterType) {
-                    case "low-pass":
-                        signal[i] = signal[i] * cutoffValues[0] + (i > 0 ? signal[i - 1] * (1 - cutoffValues[0]) : 0);
-                        break;
-                    case "high-pass":
-                        signal[i] = signal[i] - (i > 0 ? signal[i - 1] * cutoffValues[0] : 0);
-                        break;
-                    case "band-pass":
-                        if (i > 0) {
-                            signal[i] = (signal[i] * cutoffValues[1] - signal[i - 1] * cutoffValues[0]);
-                        }
-                        break;
-                }
-            }
-            return null;
+    // The recurrence for each filter type as a one-pole section
+    private static FirstOrderSection section(double[] cutoffValues, String filterType) {
+        switch (filterType) {
+            case "low-pass":
+                return new FirstOrderSection(cutoffValues[0], 0.0, -(1 - cutoffValues[0]));
+            case "high-pass":
+                return new FirstOrderSection(1.0, 0.0, cutoffValues[0]);
+            case "band-pass":
+                return new FirstOrderSection(cutoffValues[1], 0.0, cutoffValues[0]);
+            default:
+                throw new IllegalArgumentException("Unknown filter type: " + filterType);
         }
     }
 }
@@ -1,35 +1,454 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Multilevel orthogonal DWT denoising: decompose, shrink the detail coefficients, reconstruct.
+// Every wavelet runs as a lifting scheme in place (no scratch buffer): the paraunitary polyphase matrix is
+// factored into N = L/2 rotations separated by one-sample delays (the lattice form of Daubechies and Sweldens'
+// factorisation) and each rotation is done as three lifting steps. Coefficients stay interleaved, as in-place
+// lifting leaves them: with unit = 2^levels the approximation is at multiples of unit and the level-j details
+// are at odd multiples of 2^(j-1). The signal is mirror-extended by a margin that covers the filters' support
+// at the deepest level, so the periodic wrap of the transform never reaches the output; the same margins let
+// long signals be split into blocks that are denoised independently.
 public class WaveletDenoising {
+    public enum Wavelet {
+        HAAR(new double[]{0.7071067811865476, 0.7071067811865476},
+                new double[]{-0.41421356237309503, -0.7071067811865476}),
+        // Daubechies, 4 vanishing moments
+        DB4(new double[]{
+                -0.010597401785069032, 0.0328830116668852, 0.030841381835560764, -0.18703481171909309,
+                -0.027983769416859854, 0.6308807679298589, 0.7148465705529157, 0.2303778133088965},
+                new double[]{
+                        0.7283723633123881, 0.951793332117205, -0.35450831070111033, -0.6298584421609723,
+                        0.12753810770545346, 0.2509935619340977, -1.0470575424856592, -0.9989436716376567}),
+        // Symlet, 8 vanishing moments
+        SYM8(new double[]{
+                -0.0033824159510050028, -0.0005421323318000107, 0.03169508781152599, 0.007607487324976609,
+                -0.14329423835127267, -0.061273359067811076, 0.4813596512590534, 0.777185751699628,
+                0.36444189483617895, -0.0519458381078818, -0.027219029917103486, 0.04913717967373029,
+                0.0038087520138944896, -0.014952258337062199, -0.0003029205147241331, 0.001889950332767689},
+                new double[]{
+                        -0.07963162607715789, -0.15825969642071747, 0.3256294252553295, 0.588823257509504,
+                        -0.69583481762811, -0.9376651899803756, -1.1089523556761003, -0.9946763175362188,
+                        0.7964162487688582, 0.9746393683147136, -0.40917137145004784, -0.7009832741079653,
+                        0.2853552779230163, 0.5277380913580947, 0.2604302033344648, 0.487777442659014});
+
+        // Taps solved to full double precision (orthonormality and vanishing moments hold to 1e-50 before
+        // rounding). lifting holds (tan(theta/2), sin(theta)) per rotation in the order they are applied;
+        // the overall sign of db4 and sym8 is folded into the rotation closest to 90 degrees.
+        private final double[] lowPass;  // decomposition low-pass h
+        private final double[] highPass; // g[t] = (-1)^(t+1) h[L - 1 - t]
+        private final double[] lifting;
+
+        Wavelet(double[] lowPass, double[] lifting) {
+            this.lowPass = lowPass;
+            this.lifting = lifting;
+            this.highPass = new double[lowPass.length];
+            for (int t = 0; t < lowPass.length; t++) {
+                highPass[t] = (t % 2 == 0 ? -1 : 1) * lowPass[lowPass.length - 1 - t];
+            }
+        }
+
+        public int getLength() {
+            return lowPass.length;
+        }
+
+        public double[] getLowPass() {
+            return lowPass.clone();
+        }
+
+        public double[] getHighPass() {
+            return highPass.clone();
+        }
+    }
 
+    public enum Shrinkage { SOFT, HARD }
+
+    private static final int MIN_BLOCK = 16384;
+    private static final double MAD_TO_SIGMA = 0.6745;
+    private static final int LIFT_BLOCK = 1024; // sample pairs per block of the lifting sweep
+
+    private Wavelet wavelet = Wavelet.SYM8;
+    private int levels = 5;
+    private Shrinkage shrinkage = Shrinkage.SOFT;
+    private double threshold = Double.NaN; // NaN: universal (VisuShrink) threshold from the signal
+
+    public WaveletDenoising() {
+    }
+
+    public WaveletDenoising(Wavelet wavelet, int levels, Shrinkage shrinkage) {
+        this.wavelet = wavelet;
+        this.levels = checkLevels(levels);
+        this.shrinkage = shrinkage;
+    }
+
+    public void setWavelet(Wavelet wavelet) {
+        this.wavelet = wavelet;
+    }
+
+    public void setLevels(int levels) {
+        this.levels = checkLevels(levels);
+    }
+
+    public void setShrinkage(Shrinkage shrinkage) {
+        this.shrinkage = shrinkage;
+    }
+
+    // A fixed threshold for every detail level; NaN restores the universal threshold
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public Wavelet getWavelet() {
+        return wavelet;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    private static int checkLevels(int levels) {
+        if (levels < 1 || levels > 16) {
+            throw new IllegalArgumentException("Decomposition levels must be in 1..16, got " + levels);
+        }
+        return levels;
+    }
+
+    // Denoised copy of the signal; the input is left untouched. The whole signal is one block, and the
+    // universal threshold is taken from that block's own finest details instead of a separate pass.
     public double[] applyWaveletDenoise(double[] signal) {
-        // Decompose signal into wavelet coefficients
-        double[] coefficients = decompose(signal);
+        double[] output = new double[signal.length];
+        if (signal.length == 0) {
+            return output;
+        }
+        denoiseBlock(signal, threshold, 0, signal.length, output);
+        return output;
+    }
 
-        // Apply thresholding to remove noise
-        double[] thresholded = threshold(coefficients);
+    // Block-parallel version: each block is transformed with its own margins and gives the same output
+    // as the sequential call up to rounding
+    public double[] applyWaveletDenoise(double[] signal, ExecutorService executor, int chunks)
+            throws InterruptedException, ExecutionException {
+        int unit = 1 << levels;
+        chunks = Math.min(chunks, signal.length / Math.max(MIN_BLOCK, 4 * margin()));
+        if (chunks <= 1) {
+            return applyWaveletDenoise(signal);
+        }
+        int[] start = new int[chunks + 1];
+        for (int k = 0; k < chunks; k++) {
+            start[k] = (int) ((long) k * signal.length / chunks) / unit * unit; // keep the decimation phase
+        }
+        start[chunks] = signal.length;
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        // The noise estimate needs the finest details of the whole signal; those are computed in blocks too
+        double lambda = threshold;
+        if (Double.isNaN(lambda)) {
+            double[] details = new double[signal.length / 2];
+            for (int k = 0; k < chunks; k++) {
+                int index = k;
+                tasks.add(() -> {
+                    finestDetails(signal, start[index] / 2, Math.min(start[index + 1] / 2, details.length), details);
+                    return null;
+                });
+            }
+            invokeAll(executor, tasks);
+            tasks.clear();
+            lambda = universalThreshold(details, signal.length);
+        }
 
-        // Reconstruct signal from wavelet coefficients
-        return reconstruct(thresholded);
+        double[] output = new double[signal.length];
+        double blockThreshold = lambda;
+        for (int k = 0; k < chunks; k++) {
+            int index = k;
+            tasks.add(() -> {
+                denoiseBlock(signal, blockThreshold, start[index], start[index + 1], output);
+                return null;
+            });
+        }
+        invokeAll(executor, tasks);
+        return output;
     }
 
-    private double[] decompose(double[] signal) {
-        // Placeholder for wavelet decomposition logic
-        // Replace with actual wavelet library call
-        return signal; // Return original for now
+    private static void invokeAll(ExecutorService executor, List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
     }
 
-    private double[] threshold(double[] coefficients) {
-        // Apply soft or hard thresholding
-        for (int i = 0; i < coefficients.length; i++) {
-            if (Math.abs(coefficients[i]) < 0.1) { // Example threshold
-                coefficients[i] = 0;
+    // Forward transform of data[0 .. length) in place, interleaved layout; length must be divisible by 2^levels
+    public void decompose(double[] data, int length, int levels) {
+        checkLength(length, levels);
+        for (int step = 1, j = 0; j < levels; j++, step <<= 1) {
+            liftForward(data, step, length / step);
+        }
+    }
+
+    // Inverse of decompose()
+    public void reconstruct(double[] data, int length, int levels) {
+        checkLength(length, levels);
+        for (int step = 1 << (levels - 1), j = 0; j < levels; j++, step >>= 1) {
+            liftInverse(data, step, length / step);
+        }
+    }
+
+    // VisuShrink: sigma from the median absolute finest-level detail, times sqrt(2 ln n)
+    public double universalThreshold(double[] signal) {
+        double[] details = new double[signal.length / 2];
+        finestDetails(signal, 0, details.length, details);
+        return universalThreshold(details, signal.length);
+    }
+
+    private static double universalThreshold(double[] details, int n) {
+        if (details.length == 0) {
+            return 0.0;
+        }
+        double sigma = select(details, details.length / 2) / MAD_TO_SIGMA;
+        return sigma * Math.sqrt(2 * Math.log(n));
+    }
+
+    // |d[k]| of the first decomposition level for k in [from, to)
+    private void finestDetails(double[] signal, int from, int to, double[] details) {
+        double[] g = wavelet.highPass;
+        int n = signal.length;
+        for (int k = from; k < to; k++) {
+            double d = 0;
+            if (2 * k + g.length <= n) {
+                for (int t = 0; t < g.length; t++) {
+                    d += g[t] * signal[2 * k + t];
+                }
+            } else {
+                for (int t = 0; t < g.length; t++) {
+                    d += g[t] * signal[mirror(2 * k + t, n)];
+                }
+            }
+            details[k] = Math.abs(d);
+        }
+    }
+
+    // Samples of extension needed on each side: twice the deepest level's support (analysis, then synthesis)
+    private int margin() {
+        int unit = 1 << levels;
+        int support = 2 * (wavelet.getLength() - 1) * unit;
+        return (support + unit - 1) / unit * unit;
+    }
+
+    // Denoise output[from .. to) from a mirror-extended copy of signal around it; a NaN threshold is
+    // estimated from the block's finest details over [from, to)
+    private void denoiseBlock(double[] signal, double lambda, int from, int to, double[] output) {
+        int unit = 1 << levels;
+        int margin = margin();
+        int length = (to - from + 2 * margin + unit - 1) / unit * unit;
+        double[] data = new double[length];
+        int n = signal.length;
+        // mirrored only where the block runs past the signal ends, the rest is a bulk copy
+        int offset = from - margin;
+        int inside = Math.max(0, -offset);
+        int insideEnd = Math.min(length, n - offset);
+        for (int i = 0; i < inside; i++) {
+            data[i] = signal[mirror(offset + i, n)];
+        }
+        System.arraycopy(signal, offset + inside, data, inside, insideEnd - inside);
+        for (int i = Math.max(inside, insideEnd); i < length; i++) {
+            data[i] = signal[mirror(offset + i, n)];
+        }
+        decompose(data, length, levels);
+        if (Double.isNaN(lambda)) {
+            // d[k] = sum g[t] x[2k + t] ends up in the odd slot of sample pair k + N - 1 (one delay per rotation)
+            double[] details = new double[(to - from) / 2];
+            int first = margin + wavelet.lifting.length - 1;
+            for (int k = 0; k < details.length; k++) {
+                details[k] = Math.abs(data[first + 2 * k]);
+            }
+            lambda = universalThreshold(details, to - from);
+        }
+        shrink(data, length, unit, lambda);
+        reconstruct(data, length, levels);
+        System.arraycopy(data, margin, output, from, to - from);
+    }
+
+    // Shrink every detail coefficient, i.e. everything but the multiples of unit: the approximation is set
+    // aside so one flat loop can run over the whole block
+    private void shrink(double[] data, int length, int unit, double lambda) {
+        double[] approximation = new double[length / unit];
+        for (int k = 0; k < approximation.length; k++) {
+            approximation[k] = data[k * unit];
+        }
+        if (shrinkage == Shrinkage.HARD) {
+            for (int i = 0; i < length; i++) {
+                if (Math.abs(data[i]) <= lambda) {
+                    data[i] = 0.0;
+                }
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                double v = data[i];
+                data[i] = v - Math.max(-lambda, Math.min(lambda, v));
+            }
+        }
+        for (int k = 0; k < approximation.length; k++) {
+            data[k * unit] = approximation[k];
+        }
+    }
+
+    // One periodised analysis level on x[i] = data[i * step], i in [0, m): rotation s pairs e[k] = x[2k] with
+    // o[j] = x[2j + 1], j = k + s, and is done as three lifting steps (see rotate). Afterwards x[2k] = a[k] and
+    // x[2(k + N - 1) + 1] = d[k], indices taken modulo m. Rotation s at o[j] needs rotation s - 1 at o[j] and
+    // at o[j - 1] (which last touched e[j - s]), so the pairs are swept in blocks that fit in L1 and within a
+    // block rotations s and s + 1 share one pass, o[j] staying in a register between the two.
+    private void liftForward(double[] data, int step, int m) {
+        double[] lift = wavelet.lifting;
+        int stages = lift.length / 2;
+        int half = m / 2;
+        int stride = 2 * step;
+        int end = half + stages - 1;
+        for (int j0 = 0; j0 < end; j0 += LIFT_BLOCK) {
+            int j1 = Math.min(end, j0 + LIFT_BLOCK);
+            for (int s = 0; s < stages; s += 2) {
+                double t = lift[2 * s];
+                double sin = lift[2 * s + 1];
+                if (s + 1 == stages) {
+                    rotateRange(data, step, half, s, Math.max(j0, s), Math.min(j1, half + s), t, sin, true);
+                    continue;
+                }
+                double t2 = lift[2 * s + 2];
+                double sin2 = lift[2 * s + 3];
+                // rotation s starts one pair before rotation s + 1 and ends one pair before it too
+                rotateRange(data, step, half, s, Math.max(j0, s), Math.min(j1, s + 1), t, sin, true);
+                int from = Math.max(j0, s + 1);
+                int to = Math.min(j1, half + s);
+                for (int j = from; j < Math.min(to, half); j++) {
+                    int odd = j * stride + step;
+                    int even = (j - s) * stride;
+                    double o = rotate(data, even, data[odd], t, sin);
+                    data[odd] = rotate(data, even - stride, o, t2, sin2);
+                }
+                for (int j = Math.max(from, half); j < to; j++) {
+                    int odd = j % half * stride + step;
+                    int even = (j - s) * stride;
+                    double o = rotate(data, even, data[odd], t, sin);
+                    data[odd] = rotate(data, even - stride, o, t2, sin2);
+                }
+                rotateRange(data, step, half, s + 1, Math.max(j0, half + s), Math.min(j1, half + s + 1), t2, sin2, true);
+            }
+        }
+    }
+
+    // Exact reverse of liftForward: blocks, rotations and pairs in reverse order, every lifting step undone
+    private void liftInverse(double[] data, int step, int m) {
+        double[] lift = wavelet.lifting;
+        int stages = lift.length / 2;
+        int half = m / 2;
+        int stride = 2 * step;
+        int end = half + stages - 1;
+        for (int j0 = (end - 1) / LIFT_BLOCK * LIFT_BLOCK; j0 >= 0; j0 -= LIFT_BLOCK) {
+            int j1 = Math.min(end, j0 + LIFT_BLOCK);
+            for (int s = (stages - 1) & ~1; s >= 0; s -= 2) {
+                double t = lift[2 * s];
+                double sin = lift[2 * s + 1];
+                if (s + 1 == stages) {
+                    rotateRange(data, step, half, s, Math.max(j0, s), Math.min(j1, half + s), t, sin, false);
+                    continue;
+                }
+                double t2 = lift[2 * s + 2];
+                double sin2 = lift[2 * s + 3];
+                rotateRange(data, step, half, s + 1, Math.max(j0, half + s), Math.min(j1, half + s + 1), t2, sin2, false);
+                int from = Math.max(j0, s + 1);
+                int to = Math.min(j1, half + s);
+                for (int j = to - 1; j >= Math.max(from, half); j--) {
+                    int odd = j % half * stride + step;
+                    int even = (j - s) * stride;
+                    double o = unrotate(data, even - stride, data[odd], t2, sin2);
+                    data[odd] = unrotate(data, even, o, t, sin);
+                }
+                for (int j = Math.min(to, half) - 1; j >= from; j--) {
+                    int odd = j * stride + step;
+                    int even = (j - s) * stride;
+                    double o = unrotate(data, even - stride, data[odd], t2, sin2);
+                    data[odd] = unrotate(data, even, o, t, sin);
+                }
+                rotateRange(data, step, half, s, Math.max(j0, s), Math.min(j1, s + 1), t, sin, false);
             }
         }
-        return coefficients;
     }
 
-    private double[] reconstruct(double[] coefficients) {
-        // Placeholder for wavelet reconstruction logic
-        // Replace with actual wavelet library call
-        return coefficients; // Return "denoised" coefficients for now
+    // Rotation s (or its inverse) alone on the pairs ending at o[j], j in [from, to)
+    private static void rotateRange(double[] data, int step, int half, int s, int from, int to,
+                                    double t, double sin, boolean forward) {
+        int stride = 2 * step;
+        for (int j = from; j < to; j++) {
+            int odd = (j < half ? j : j % half) * stride + step;
+            int even = (j - s) * stride;
+            data[odd] = forward ? rotate(data, even, data[odd], t, sin) : unrotate(data, even, data[odd], t, sin);
+        }
+    }
+
+    // Rotation by theta as three lifting steps on e = data[even] and o, with t = tan(theta / 2):
+    // e -= t o, o += sin(theta) e, e -= t o; returns the new o
+    private static double rotate(double[] data, int even, double o, double t, double sin) {
+        double e = data[even] - t * o;
+        o += sin * e;
+        data[even] = e - t * o;
+        return o;
+    }
+
+    private static double unrotate(double[] data, int even, double o, double t, double sin) {
+        double e = data[even] + t * o;
+        o -= sin * e;
+        data[even] = e + t * o;
+        return o;
+    }
+
+    private void checkLength(int length, int levels) {
+        if (levels < 1 || length % (1 << levels) != 0) {
+            throw new IllegalArgumentException("Length " + length + " is not divisible by 2^" + levels);
+        }
+    }
+
+    // Half-sample symmetric extension: ... x1 x0 | x0 x1 ... x(n-1) | x(n-1) x(n-2) ...
+    private static int mirror(int i, int n) {
+        int period = 2 * n;
+        i %= period;
+        if (i < 0) {
+            i += period;
+        }
+        return i < n ? i : period - 1 - i;
+    }
+
+    // k-th smallest value (quickselect; reorders the array)
+    private static double select(double[] values, int k) {
+        int lo = 0;
+        int hi = values.length - 1;
+        while (lo < hi) {
+            double pivot = values[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double t = values[i];
+                    values[i] = values[j];
+                    values[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
     }
 }
@@ -0,0 +1,202 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Parsed WFDB header (.hea) for a single-segment record
+public class WfdbHeader {
+    public static final double DEFAULT_GAIN = 200.0; // WFDB default ADC units per physical unit
+
+    private final File headerFile;
+    private final String recordName;
+    private final int numSignals;
+    private final double sampleRate;
+    private final int numSamples;
+    private final List<SignalSpec> signals;
+
+    private WfdbHeader(File headerFile, String recordName, int numSignals, double sampleRate, int numSamples, List<SignalSpec> signals) {
+        this.headerFile = headerFile;
+        this.recordName = recordName;
+        this.numSignals = numSignals;
+        this.sampleRate = sampleRate;
+        this.numSamples = numSamples;
+        this.signals = signals;
+    }
+
+    // Read and parse a .hea file
+    public static WfdbHeader parse(String headerFilePath) throws IOException {
+        File file = new File(headerFilePath);
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+        if (lines.isEmpty()) {
+            throw new IOException("Empty WFDB header: " + headerFilePath);
+        }
+
+        // Record line: name[/segments] nsig [fs[/counter][(base)]] [nsamp] [time] [date]
+        String[] record = lines.get(0).split("\\s+");
+        if (record.length < 2) {
+            throw new IOException("Malformed record line in " + headerFilePath + ": " + lines.get(0));
+        }
+        if (record[0].contains("/")) {
+            throw new IOException("Multi-segment master headers are not supported here: " + headerFilePath);
+        }
+        int numSignals = Integer.parseInt(record[1]);
+        double sampleRate = record.length > 2 ? Double.parseDouble(leadingNumber(record[2])) : 250.0;
+        int numSamples = record.length > 3 ? Integer.parseInt(record[3]) : 0;
+
+        if (lines.size() < numSignals + 1) {
+            throw new IOException("Header declares " + numSignals + " signals but lists " + (lines.size() - 1) + ": " + headerFilePath);
+        }
+        List<SignalSpec> signals = new ArrayList<>(numSignals);
+        for (int i = 0; i < numSignals; i++) {
+            signals.add(SignalSpec.parse(lines.get(i + 1), headerFilePath));
+        }
+        return new WfdbHeader(file, record[0], numSignals, sampleRate, numSamples, signals);
+    }
+
+    // Resolve a signal's data file relative to the header's directory
+    public File resolveDataFile(SignalSpec signal) {
+        return new File(headerFile.getParentFile(), signal.fileName);
+    }
+
+    public File getHeaderFile() {
+        return headerFile;
+    }
+
+    public String getRecordName() {
+        return recordName;
+    }
+
+    public int getNumSignals() {
+        return numSignals;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    // Declared samples per signal, 0 when the header leaves it out
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    public List<SignalSpec> getSignals() {
+        return signals;
+    }
+
+    private static String leadingNumber(String field) {
+        int end = 0;
+        while (end < field.length() && (Character.isDigit(field.charAt(end)) || field.charAt(end) == '.' || field.charAt(end) == '-')) {
+            end++;
+        }
+        return field.substring(0, end);
+    }
+
+    // One signal specification line of the header
+    public static class SignalSpec {
+        private final String fileName;
+        private final int format;
+        private final long byteOffset;
+        private final double gain;
+        private final int baseline;
+        private final String units;
+        private final int adcZero;
+        private final String description;
+
+        private SignalSpec(String fileName, int format, long byteOffset, double gain, int baseline, String units, int adcZero, String description) {
+            this.fileName = fileName;
+            this.format = format;
+            this.byteOffset = byteOffset;
+            this.gain = gain;
+            this.baseline = baseline;
+            this.units = units;
+            this.adcZero = adcZero;
+            this.description = description;
+        }
+
+        // file format[xspf][:skew][+offset] [gain[(baseline)][/units]] [adcres] [adczero] [initval] [checksum] [blocksize] [desc]
+        static SignalSpec parse(String line, String headerFilePath) throws IOException {
+            String[] f = line.split("\\s+", 9);
+            if (f.length < 2) {
+                throw new IOException("Malformed signal line in " + headerFilePath + ": " + line);
+            }
+            String formatField = f[1];
+            if (formatField.contains("x") || formatField.contains(":")) {
+                throw new IOException("Multi-sample frames and skew are not supported: " + line);
+            }
+            long byteOffset = 0;
+            int plus = formatField.indexOf('+');
+            if (plus >= 0) {
+                byteOffset = Long.parseLong(formatField.substring(plus + 1));
+                formatField = formatField.substring(0, plus);
+            }
+            int format = Integer.parseInt(formatField);
+
+            double gain = 0;
+            Integer baseline = null;
+            String units = "mV";
+            if (f.length > 2) {
+                String gainField = f[2];
+                int slash = gainField.indexOf('/');
+                if (slash >= 0) {
+                    units = gainField.substring(slash + 1);
+                    gainField = gainField.substring(0, slash);
+                }
+                int paren = gainField.indexOf('(');
+                if (paren >= 0) {
+                    baseline = Integer.parseInt(gainField.substring(paren + 1, gainField.indexOf(')')));
+                    gainField = gainField.substring(0, paren);
+                }
+                gain = Double.parseDouble(gainField);
+            }
+            if (gain == 0) {
+                gain = DEFAULT_GAIN;
+            }
+            int adcZero = f.length > 4 ? Integer.parseInt(f[4]) : 0;
+            String description = f.length > 8 ? f[8] : "";
+            return new SignalSpec(f[0], format, byteOffset, gain, baseline != null ? baseline : adcZero, units, adcZero, description);
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getFormat() {
+            return format;
+        }
+
+        public long getByteOffset() {
+            return byteOffset;
+        }
+
+        public double getGain() {
+            return gain;
+        }
+
+        public int getBaseline() {
+            return baseline;
+        }
+
+        public String getUnits() {
+            return units;
+        }
+
+        public int getAdcZero() {
+            return adcZero;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads WFDB records (format 212, 80 and 16) by memory-mapping the .dat files
+public class WfdbReader {
+
+    // Read every signal of the record described by the given .hea file
+    public static WfdbRecord read(String headerFilePath) throws IOException {
+        return read(WfdbHeader.parse(headerFilePath));
+    }
+
+    public static WfdbRecord read(WfdbHeader header) throws IOException {
+        List<WfdbHeader.SignalSpec> signals = header.getSignals();
+        double[][] channels = new double[signals.size()][];
+
+        // Signals stored in the same file are interleaved frame by frame
+        for (Map.Entry<String, List<Integer>> group : groupByFile(signals).entrySet()) {
+            List<Integer> indices = group.getValue();
+            WfdbHeader.SignalSpec first = signals.get(indices.get(0));
+            int format = first.getFormat();
+            int[] channelMap = new int[indices.size()];
+            for (int i = 0; i < channelMap.length; i++) {
+                channelMap[i] = indices.get(i);
+                if (signals.get(channelMap[i]).getFormat() != format) {
+                    throw new IOException("Mixed formats within " + group.getKey() + " are not supported");
+                }
+            }
+
+            File datFile = header.resolveDataFile(first);
+            try (FileChannel channel = FileChannel.open(datFile.toPath(), StandardOpenOption.READ)) {
+                long available = channel.size() - first.getByteOffset();
+                int numFrames = (int) Math.min(framesInBytes(format, channelMap.length, available),
+                        header.getNumSamples() > 0 ? header.getNumSamples() : Integer.MAX_VALUE);
+                for (int c : channelMap) {
+                    channels[c] = new double[numFrames];
+                }
+                long length = bytesForFrames(format, channelMap.length, numFrames);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, first.getByteOffset(), length);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                decode(buffer, 0, format, channelMap, signals, channels, 0, numFrames);
+            }
+        }
+        return new WfdbRecord(header, channels);
+    }
+
+    // Decode only the given windows of one signal: window k holds frames [starts[k], starts[k] + length).
+    // The data file is mapped once and nothing outside the windows is decoded.
+    public static double[][] readWindows(WfdbHeader header, int signal, int[] starts, int length) throws IOException {
+        List<WfdbHeader.SignalSpec> signals = header.getSignals();
+        WfdbHeader.SignalSpec spec = signals.get(signal);
+        List<Integer> indices = groupByFile(signals).get(spec.getFileName());
+        int[] channelMap = new int[indices.size()];
+        for (int i = 0; i < channelMap.length; i++) {
+            channelMap[i] = indices.get(i);
+            if (signals.get(channelMap[i]).getFormat() != spec.getFormat()) {
+                throw new IOException("Mixed formats within " + spec.getFileName() + " are not supported");
+            }
+        }
+        int format = spec.getFormat();
+        int n = channelMap.length;
+
+        double[][] windows = new double[starts.length][];
+        try (FileChannel channel = FileChannel.open(header.resolveDataFile(spec).toPath(), StandardOpenOption.READ)) {
+            long available = channel.size() - spec.getByteOffset();
+            long numFrames = framesInBytes(format, n, available);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, spec.getByteOffset(), bytesForFrames(format, n, numFrames));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            // Scratch for all signals in the file, one frame longer to allow a format 212 pair-aligned start
+            double[][] scratch = new double[signals.size()][];
+            for (int c : channelMap) {
+                scratch[c] = new double[length + 1];
+            }
+            for (int k = 0; k < starts.length; k++) {
+                int start = starts[k];
+                if (start < 0 || start + (long) length > numFrames) {
+                    throw new IllegalArgumentException("Window [" + start + ", " + (start + length) + ") outside record of " + numFrames + " frames");
+                }
+                int aligned = start;
+                if (format == 212 && ((long) start * n) % 2 != 0) {
+                    aligned--;
+                }
+                int frames = start - aligned + length;
+                decode(buffer, (int) bytesForFrames(format, n, aligned), format, channelMap, signals, scratch, 0, frames);
+                windows[k] = Arrays.copyOfRange(scratch[signal], start - aligned, start - aligned + length);
+            }
+        }
+        return windows;
+    }
+
+    static Map<String, List<Integer>> groupByFile(List<WfdbHeader.SignalSpec> signals) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < signals.size(); i++) {
+            groups.computeIfAbsent(signals.get(i).getFileName(), k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    // Number of complete frames that fit in the given byte count
+    static long framesInBytes(int format, int signalsInFile, long bytes) {
+        switch (format) {
+            case 16:
+                return bytes / (2L * signalsInFile);
+            case 80:
+                return bytes / signalsInFile;
+            case 212:
+                return (bytes / 3 * 2) / signalsInFile;
+            default:
+                throw new IllegalArgumentException("Unsupported WFDB format: " + format);
+        }
+    }
+
+    // Bytes occupied by the given number of frames (format 212 rounds up to a whole sample pair)
+    static long bytesForFrames(int format, int signalsInFile, long frames) {
+        long samples = frames * signalsInFile;
+        switch (format) {
+            case 16:
+                return samples * 2;
+            case 80:
+                return samples;
+            case 212:
+                return (samples + 1) / 2 * 3;
+            default:
+                throw new IllegalArgumentException("Unsupported WFDB format: " + format);
+        }
+    }
+
+    // Decode frames starting at byte position pos into physical units; for format 212 pos must sit on a sample pair
+    static void decode(MappedByteBuffer buffer, int pos, int format, int[] channelMap, List<WfdbHeader.SignalSpec> signals,
+                       double[][] out, int outOff, int numFrames) {
+        int n = channelMap.length;
+        double[] scale = new double[n];
+        int[] baseline = new int[n];
+        for (int i = 0; i < n; i++) {
+            WfdbHeader.SignalSpec spec = signals.get(channelMap[i]);
+            scale[i] = 1.0 / spec.getGain();
+            baseline[i] = spec.getBaseline();
+        }
+
+        switch (format) {
+            case 16:
+                for (int f = 0; f < numFrames; f++) {
+                    for (int c = 0; c < n; c++) {
+                        out[channelMap[c]][outOff + f] = (buffer.getShort(pos) - baseline[c]) * scale[c];
+                        pos += 2;
+                    }
+                }
+                break;
+            case 80:
+                for (int f = 0; f < numFrames; f++) {
+                    for (int c = 0; c < n; c++) {
+                        out[channelMap[c]][outOff + f] = ((buffer.get(pos) & 0xFF) - 128 - baseline[c]) * scale[c];
+                        pos++;
+                    }
+                }
+                break;
+            case 212:
+                // Two 12-bit samples packed in three bytes; the pair may straddle a frame boundary
+                long total = (long) numFrames * n;
+                int frame = outOff;
+                int c = 0;
+                for (long k = 0; k < total; k += 2) {
+                    int b0 = buffer.get(pos) & 0xFF;
+                    int b1 = buffer.get(pos + 1) & 0xFF;
+                    int s0 = ((b1 & 0x0F) << 28 | b0 << 20) >> 20;
+                    out[channelMap[c]][frame] = (s0 - baseline[c]) * scale[c];
+                    if (++c == n) {
+                        c = 0;
+                        frame++;
+                    }
+                    if (k + 1 < total) {
+                        int b2 = buffer.get(pos + 2) & 0xFF;
+                        int s1 = ((b1 & 0xF0) << 24 | b2 << 20) >> 20;
+                        out[channelMap[c]][frame] = (s1 - baseline[c]) * scale[c];
+                        if (++c == n) {
+                            c = 0;
+                            frame++;
+                        }
+                    }
+                    pos += 3;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported WFDB format: " + format);
+        }
+    }
+}
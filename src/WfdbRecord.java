@@ -0,0 +1,38 @@
+// Decoded WFDB record: one physical-unit array per signal
+public class WfdbRecord {
+    private final WfdbHeader header;
+    private final double[][] channels;
+
+    public WfdbRecord(WfdbHeader header, double[][] channels) {
+        this.header = header;
+        this.channels = channels;
+    }
+
+    public WfdbHeader getHeader() {
+        return header;
+    }
+
+    public String getName() {
+        return header.getRecordName();
+    }
+
+    public double getSampleRate() {
+        return header.getSampleRate();
+    }
+
+    public int getNumChannels() {
+        return channels.length;
+    }
+
+    public int getNumSamples() {
+        return channels.length == 0 ? 0 : channels[0].length;
+    }
+
+    public double[] getChannel(int index) {
+        return channels[index];
+    }
+
+    public double[][] getChannels() {
+        return channels;
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Walks the segments of a multi-segment record (e.g. 3000003_0001 ... 3000003_0006) as one continuous stream.
+// Channels are taken from the first segment and matched by signal description in later segments;
+// a signal missing from a segment is filled with zeros for that segment's duration, and so is every channel
+// of a segment whose signal file is missing, so later segments stay at their true positions in time.
+public class WfdbSegmentedStream implements SignalSource {
+    private final List<WfdbHeader> segments;
+    private final String[] channelNames;
+    private final double sampleRate;
+    private int segmentIndex = -1;
+    private WfdbStream current;
+    private int[] currentMap;          // output channel -> channel in current segment, or -1
+    private double[][] segmentBlock;   // staging for the current segment's channels
+    private long gapFrames;            // zeros still to emit for a segment without its signal file
+
+    public WfdbSegmentedStream(List<WfdbHeader> segments) {
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("No segments to stream");
+        }
+        this.segments = segments;
+        List<WfdbHeader.SignalSpec> first = segments.get(0).getSignals();
+        this.channelNames = new String[first.size()];
+        for (int i = 0; i < channelNames.length; i++) {
+            channelNames[i] = first.get(i).getDescription();
+        }
+        this.sampleRate = segments.get(0).getSampleRate();
+        for (WfdbHeader segment : segments) {
+            if (segment.getSampleRate() != sampleRate) {
+                throw new IllegalArgumentException("Segment " + segment.getRecordName() + " runs at " + segment.getSampleRate()
+                        + " Hz, expected " + sampleRate + " Hz");
+            }
+        }
+    }
+
+    // Collect <record>_NNNN.hea segments from a directory in order; a segment without its .dat file becomes a
+    // gap of its declared length, and is only skipped when its header declares no length
+    public static WfdbSegmentedStream open(File directory, String recordName) throws IOException {
+        File[] headers = directory.listFiles((dir, name) -> name.startsWith(recordName + "_") && name.endsWith(".hea"));
+        if (headers == null || headers.length == 0) {
+            throw new IOException("No segments of " + recordName + " in " + directory);
+        }
+        Arrays.sort(headers);
+        List<WfdbHeader> segments = new ArrayList<>();
+        for (File file : headers) {
+            WfdbHeader header = WfdbHeader.parse(file.getPath());
+            if (!hasSignalFiles(header)) {
+                if (header.getNumSamples() <= 0) {
+                    System.err.println("Skipping segment without signal file or length: " + header.getRecordName());
+                    continue;
+                }
+                System.err.println("Segment without signal file, streaming " + header.getNumSamples() + " zeros: "
+                        + header.getRecordName());
+            }
+            segments.add(header);
+        }
+        return new WfdbSegmentedStream(segments);
+    }
+
+    private static boolean hasSignalFiles(WfdbHeader header) {
+        for (WfdbHeader.SignalSpec signal : header.getSignals()) {
+            if (!header.resolveDataFile(signal).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String[] getChannelNames() {
+        return channelNames;
+    }
+
+    @Override
+    public int getNumChannels() {
+        return channelNames.length;
+    }
+
+    @Override
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int read(double[][] block, int offset, int maxFrames) throws IOException {
+        while (true) {
+            if (gapFrames > 0) {
+                int n = (int) Math.min(maxFrames, gapFrames);
+                for (int c = 0; c < channelNames.length; c++) {
+                    Arrays.fill(block[c], offset, offset + n, 0.0);
+                }
+                gapFrames -= n;
+                return n;
+            }
+            if (current == null) {
+                if (!openNextSegment()) {
+                    return -1;
+                }
+                continue;
+            }
+            if (segmentBlock[0].length < maxFrames) {
+                segmentBlock = new double[segmentBlock.length][maxFrames];
+            }
+            int n = current.read(segmentBlock, 0, maxFrames);
+            if (n < 0) {
+                current.close();
+                current = null;
+                continue;
+            }
+            for (int c = 0; c < channelNames.length; c++) {
+                if (currentMap[c] >= 0) {
+                    System.arraycopy(segmentBlock[currentMap[c]], 0, block[c], offset, n);
+                } else {
+                    Arrays.fill(block[c], offset, offset + n, 0.0);
+                }
+            }
+            return n;
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        if (++segmentIndex >= segments.size()) {
+            return false;
+        }
+        WfdbHeader header = segments.get(segmentIndex);
+        if (!hasSignalFiles(header)) {
+            gapFrames = header.getNumSamples();
+            return true;
+        }
+        current = new WfdbStream(header);
+        currentMap = new int[channelNames.length];
+        List<WfdbHeader.SignalSpec> signals = header.getSignals();
+        for (int c = 0; c < channelNames.length; c++) {
+            currentMap[c] = -1;
+            for (int s = 0; s < signals.size(); s++) {
+                if (signals.get(s).getDescription().equals(channelNames[c])) {
+                    currentMap[c] = s;
+                    break;
+                }
+            }
+        }
+        int capacity = segmentBlock == null ? 0 : segmentBlock[0].length;
+        segmentBlock = new double[Math.max(1, current.getNumChannels())][capacity];
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        segmentIndex = segments.size();
+        gapFrames = 0;
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Streams a single-segment WFDB record through a sliding memory-mapped window
+public class WfdbStream implements SignalSource {
+    private static final int CHUNK_FRAMES = 4096;          // decoded per step, even so format 212 pairs never split
+    private static final int WINDOW_FRAMES = CHUNK_FRAMES * 256; // mapped at once
+
+    private final WfdbHeader header;
+    private final List<FileGroup> groups = new ArrayList<>();
+    private final long numFrames;
+    private final double[][] staging;
+    private long nextFrame;   // first frame not yet decoded
+    private int stagedPos;
+    private int stagedLen;
+
+    public WfdbStream(String headerFilePath) throws IOException {
+        this(WfdbHeader.parse(headerFilePath));
+    }
+
+    public WfdbStream(WfdbHeader header) throws IOException {
+        this.header = header;
+        List<WfdbHeader.SignalSpec> signals = header.getSignals();
+        long frames = header.getNumSamples() > 0 ? header.getNumSamples() : Long.MAX_VALUE;
+        try {
+            for (Map.Entry<String, List<Integer>> entry : WfdbReader.groupByFile(signals).entrySet()) {
+                FileGroup group = new FileGroup(header, signals, entry.getValue());
+                groups.add(group);
+                frames = Math.min(frames, group.availableFrames);
+            }
+        } catch (IOException e) {
+            try {
+                closeChannels(groups);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        this.numFrames = frames == Long.MAX_VALUE ? 0 : frames;
+        this.staging = new double[signals.size()][CHUNK_FRAMES];
+    }
+
+    public WfdbHeader getHeader() {
+        return header;
+    }
+
+    // Total frames per channel in this segment
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    @Override
+    public int getNumChannels() {
+        return staging.length;
+    }
+
+    @Override
+    public double getSampleRate() {
+        return header.getSampleRate();
+    }
+
+    @Override
+    public int read(double[][] block, int offset, int maxFrames) throws IOException {
+        if (stagedPos == stagedLen) {
+            if (nextFrame >= numFrames) {
+                return -1;
+            }
+            stageNextChunk();
+        }
+        int n = Math.min(maxFrames, stagedLen - stagedPos);
+        for (int c = 0; c < staging.length; c++) {
+            System.arraycopy(staging[c], stagedPos, block[c], offset, n);
+        }
+        stagedPos += n;
+        return n;
+    }
+
+    private void stageNextChunk() throws IOException {
+        int frames = (int) Math.min(CHUNK_FRAMES, numFrames - nextFrame);
+        for (FileGroup group : groups) {
+            group.decode(nextFrame, frames, staging);
+        }
+        nextFrame += frames;
+        stagedPos = 0;
+        stagedLen = frames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeChannels(groups);
+    }
+
+    private static void closeChannels(List<FileGroup> groups) throws IOException {
+        IOException failure = null;
+        for (FileGroup group : groups) {
+            try {
+                group.channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Signals that share one .dat file, with the currently mapped window of that file
+    private static class FileGroup {
+        private final List<WfdbHeader.SignalSpec> signals;
+        private final int[] channelMap;
+        private final int format;
+        private final long byteOffset;
+        private final FileChannel channel;
+        private final long availableFrames;
+        private MappedByteBuffer window;
+        private long windowStart = -1;
+
+        FileGroup(WfdbHeader header, List<WfdbHeader.SignalSpec> signals, List<Integer> indices) throws IOException {
+            this.signals = signals;
+            this.channelMap = indices.stream().mapToInt(Integer::intValue).toArray();
+            WfdbHeader.SignalSpec first = signals.get(channelMap[0]);
+            this.format = first.getFormat();
+            this.byteOffset = first.getByteOffset();
+            for (int c : channelMap) {
+                if (signals.get(c).getFormat() != format) {
+                    throw new IOException("Mixed formats within " + first.getFileName() + " are not supported");
+                }
+            }
+            this.channel = FileChannel.open(header.resolveDataFile(first).toPath(), StandardOpenOption.READ);
+            this.availableFrames = WfdbReader.framesInBytes(format, channelMap.length, channel.size() - byteOffset);
+        }
+
+        void decode(long frame, int frames, double[][] out) throws IOException {
+            long start = frame / WINDOW_FRAMES * WINDOW_FRAMES;
+            if (start != windowStart) {
+                long windowFrames = Math.min(WINDOW_FRAMES, availableFrames - start);
+                long from = byteOffset + WfdbReader.bytesForFrames(format, channelMap.length, start);
+                long length = Math.min(WfdbReader.bytesForFrames(format, channelMap.length, windowFrames), channel.size() - from);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                windowStart = start;
+            }
+            int pos = (int) WfdbReader.bytesForFrames(format, channelMap.length, frame - windowStart);
+            WfdbReader.decode(window, pos, format, channelMap, signals, out, 0, frames);
+        }
+    }
+}
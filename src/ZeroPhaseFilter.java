@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Zero-phase forward-backward filtering with filtfilt semantics: the signal is extended at both ends by
+// odd reflection (2 x[0] - x[k], 2 x[n-1] - x[n-1-k]), each pass starts from the filter's step-response
+// steady state scaled by its first input (zi = (I - A)^-1 B, so a constant input starts without a
+// transient), and the padding is cut off again. Magnitude response is squared, phase cancels.
+//
+// The parallel version splits the output into sections, each filtered forward and backward on its own with
+// an overlap of one decay horizon on either side; inputs further away than that change the output by less
+// than rounding, so it agrees with the sequential result to within floating-point error.
+public final class ZeroPhaseFilter {
+    private static final int MIN_SECTION = 16384;
+
+    private ZeroPhaseFilter() {
+    }
+
+    public static double[] filtfilt(LinearFilter filter, double[] signal) {
+        int n = signal.length;
+        if (n == 0) {
+            return new double[0];
+        }
+        int pad = padLength(filter, n);
+        double[] extended = extend(signal, pad);
+        double[] zi = steadyState(filter);
+        double[] output = new double[n];
+        filterSection(filter, zi, extended, 0, extended.length, pad, pad + n, output, pad);
+        return output;
+    }
+
+    public static double[] filtfilt(LinearFilter filter, double[] signal, ExecutorService executor, int sections)
+            throws InterruptedException, ExecutionException {
+        int n = signal.length;
+        int m = filter.getStateSize();
+        int horizon = m == 0 ? 0 : ParallelRecurrence.decayHorizon(ParallelRecurrence.transitionMatrix(filter), m, n);
+        sections = Math.min(sections, n / Math.max(MIN_SECTION, 4 * horizon));
+        if (sections <= 1) {
+            return filtfilt(filter, signal);
+        }
+
+        int pad = padLength(filter, n);
+        double[] extended = extend(signal, pad);
+        double[] zi = steadyState(filter);
+        double[] output = new double[n];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k = 0; k < sections; k++) {
+            int from = pad + (int) ((long) k * n / sections);
+            int to = pad + (int) ((long) (k + 1) * n / sections);
+            // The outer sections run to the ends of the padding, where the exact initial conditions apply
+            int lo = k == 0 ? 0 : from - horizon;
+            int hi = k == sections - 1 ? extended.length : to + horizon;
+            tasks.add(() -> {
+                filterSection(filter, zi, extended, lo, hi, from, to, output, pad);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        return output;
+    }
+
+    // Forward then backward over extended[lo .. hi), writing the samples for [from, to) to output[from - pad ..).
+    // A pass that starts at an end of the extended signal gets zi times its first input, any other starts
+    // from zero state and relies on the overlap to settle.
+    private static void filterSection(LinearFilter filter, double[] zi, double[] extended, int lo, int hi,
+                                      int from, int to, double[] output, int pad) {
+        int len = hi - lo;
+        double[] work = new double[len];
+        LinearFilter forward = filter.copy();
+        if (lo == 0) {
+            forward.setState(scaled(zi, extended[0]), 0);
+        }
+        forward.process(extended, lo, work, 0, len);
+
+        reverse(work);
+        LinearFilter backward = filter.copy();
+        if (hi == extended.length) {
+            backward.setState(scaled(zi, work[0]), 0);
+        }
+        backward.process(work, 0, work, 0, len);
+        for (int i = from; i < to; i++) {
+            output[i - pad] = work[hi - 1 - i];
+        }
+    }
+
+    // Samples of padding at each end: three times the filter's order, as filtfilt uses, but shorter than the signal
+    static int padLength(LinearFilter filter, int n) {
+        return Math.max(0, Math.min(3 * (filter.getStateSize() + 1), n - 1));
+    }
+
+    // Odd reflection about the end samples
+    static double[] extend(double[] signal, int pad) {
+        int n = signal.length;
+        double[] extended = new double[n + 2 * pad];
+        for (int k = 0; k < pad; k++) {
+            extended[pad - 1 - k] = 2 * signal[0] - signal[k + 1];
+            extended[pad + n + k] = 2 * signal[n - 1] - signal[n - 2 - k];
+        }
+        System.arraycopy(signal, 0, extended, pad, n);
+        return extended;
+    }
+
+    // State the filter settles to under a constant unit input: solves (I - A) z = B, where A is the zero-input
+    // transition and B the state reached from zero state after one unit sample
+    static double[] steadyState(LinearFilter filter) {
+        int m = filter.getStateSize();
+        if (m == 0) {
+            return new double[0];
+        }
+        double[] a = ParallelRecurrence.transitionMatrix(filter);
+        LinearFilter probe = filter.copy();
+        probe.process(new double[]{1.0}, 0, new double[1], 0, 1);
+        double[] b = new double[m];
+        probe.getState(b, 0);
+
+        for (int i = 0; i < m * m; i++) {
+            a[i] = -a[i];
+        }
+        for (int i = 0; i < m; i++) {
+            a[i * m + i] += 1.0;
+        }
+        return solve(a, b, m);
+    }
+
+    // Gaussian elimination with partial pivoting; a and b are overwritten
+    private static double[] solve(double[] a, double[] b, int m) {
+        for (int col = 0; col < m; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < m; row++) {
+                if (Math.abs(a[row * m + col]) > Math.abs(a[pivot * m + col])) {
+                    pivot = row;
+                }
+            }
+            if (a[pivot * m + col] == 0.0) {
+                throw new IllegalArgumentException("Filter has a pole at z = 1; no steady state for a constant input");
+            }
+            if (pivot != col) {
+                for (int j = 0; j < m; j++) {
+                    double t = a[col * m + j];
+                    a[col * m + j] = a[pivot * m + j];
+                    a[pivot * m + j] = t;
+                }
+                double t = b[col];
+                b[col] = b[pivot];
+                b[pivot] = t;
+            }
+            for (int row = col + 1; row < m; row++) {
+                double f = a[row * m + col] / a[col * m + col];
+                if (f == 0.0) {
+                    continue;
+                }
+                for (int j = col; j < m; j++) {
+                    a[row * m + j] -= f * a[col * m + j];
+                }
+                b[row] -= f * b[col];
+            }
+        }
+        double[] x = new double[m];
+        for (int row = m - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int j = row + 1; j < m; j++) {
+                sum -= a[row * m + j] * x[j];
+            }
+            x[row] = sum / a[row * m + row];
+        }
+        return x;
+    }
+
+    private static double[] scaled(double[] v, double factor) {
+        double[] result = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            result[i] = v[i] * factor;
+        }
+        return result;
+    }
+
+    private static void reverse(double[] data) {
+        for (int i = 0, j = data.length - 1; i < j; i++, j--) {
+            double t = data[i];
+            data[i] = data[j];
+            data[j] = t;
+        }
+    }
+}